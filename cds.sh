@@ -0,0 +1,62 @@
+#!/bin/bash
+
+# Builds a class data sharing (AppCDS) archive for the prod profile and reports the startup time with and
+# without it. Needs a database, as for run-local.sh; extra arguments go to the application, e.g.
+#   sh cds.sh --spring.datasource.url=jdbc:postgresql://db:5432/product-database
+#
+# The archive only holds classes loaded from plain jars, so the Spring Boot jar is unpacked into
+# target/cds: application.jar plus the libraries, listed in classpath.txt. Run it the same way:
+#   java -XX:SharedArchiveFile=target/cds/app.jsa -cp $(cat target/cds/classpath.txt) dev.deyve.productapi.ProductApiApplication
+
+set -e
+
+CDS=target/cds
+MAIN=dev.deyve.productapi.ProductApiApplication
+PORT=${PORT:-9999}
+RUNS=${RUNS:-3}
+ARGS="--spring.profiles.active=prod --server.port=$PORT $*"
+
+if curl -s -o /dev/null "localhost:$PORT"; then
+  echo "Port $PORT is in use, stop the application or set PORT"
+  exit 1
+fi
+
+echo "Packaging Product API"
+
+mvn -B -q -DskipTests package
+
+rm -rf $CDS && mkdir -p $CDS/unpacked $CDS/lib
+(cd $CDS/unpacked && jar -xf ../../product-api-*.jar)
+jar -cf $CDS/application.jar -C $CDS/unpacked/BOOT-INF/classes .
+mv $CDS/unpacked/BOOT-INF/lib/*.jar $CDS/lib/
+ls $CDS/lib/*.jar | sort | tr '\n' ':' | sed "s|^|$CDS/application.jar:|; s|:$||" > $CDS/classpath.txt
+CLASSPATH_ARG=$(cat $CDS/classpath.txt)
+
+# starts the application, waits until it answers, runs the given requests and stops it; prints the ready time
+start() {
+  java "$@" -cp "$CLASSPATH_ARG" $MAIN $ARGS > $CDS/run.log 2>&1 &
+  PID=$!
+  until curl -s -o /dev/null "localhost:$PORT/actuator/health"; do
+    kill -0 $PID 2>/dev/null || { tail -30 $CDS/run.log; exit 1; }
+    sleep 0.2
+  done
+  for path in $REQUESTS; do curl -s -o /dev/null "localhost:$PORT$path"; done
+  kill $PID && wait $PID || true
+  grep -o "Ready in [0-9]* ms" $CDS/run.log | grep -o "[0-9]*"
+}
+
+echo "Training run"
+
+REQUESTS="/products?limit=10 /products/search?q=product&min_price=0&max_price=1000 /products/changes?wait=0"
+start -XX:DumpLoadedClassList=$CDS/classes.lst > /dev/null
+REQUESTS=""
+
+echo "Dumping $(wc -l < $CDS/classes.lst) classes"
+
+java -Xshare:dump -XX:SharedClassListFile=$CDS/classes.lst -XX:SharedArchiveFile=$CDS/app.jsa -cp "$CLASSPATH_ARG" > $CDS/dump.log 2>&1
+
+echo "Startup, ms since JVM start" | tee $CDS/startup.txt
+
+for i in $(seq 1 $RUNS); do
+  echo "without CDS: $(start -Xshare:off)   with CDS: $(start -XX:SharedArchiveFile=$CDS/app.jsa -Xshare:on)" | tee -a $CDS/startup.txt
+done
@@ -0,0 +1,58 @@
+package dev.deyve.productapi.benchmarks;
+
+import dev.deyve.productapi.dtos.ProductDTO;
+import dev.deyve.productapi.models.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Benchmark Data
+ * <p>
+ * Deterministic products shaped like the real catalog: short names, sentence-long descriptions.
+ */
+public class BenchmarkData {
+
+    public static final int LIST_SIZE = 10_000;
+
+    public static List<ProductDTO> productDTOs(int size) {
+
+        Random random = new Random(42);
+        List<ProductDTO> productDTOs = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            productDTOs.add(ProductDTO.builder()
+                    .id(new UUID(random.nextLong(), random.nextLong()))
+                    .name("Product " + i)
+                    .description("Smart phone model " + i + " with a large screen, long battery life and a fast charger")
+                    .price(BigDecimal.valueOf(random.nextInt(1_000_000), 2))
+                    .build());
+        }
+
+        return productDTOs;
+    }
+
+    public static List<Product> products(int size) {
+
+        List<Product> products = new ArrayList<>(size);
+        long id = 1;
+
+        for (ProductDTO productDTO : productDTOs(size)) {
+            products.add(Product.builder()
+                    .id(id++)
+                    .externalId(productDTO.getId())
+                    .name(productDTO.getName())
+                    .description(productDTO.getDescription())
+                    .price(productDTO.getPrice())
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .build());
+        }
+
+        return products;
+    }
+}
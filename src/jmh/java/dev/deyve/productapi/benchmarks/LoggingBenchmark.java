@@ -0,0 +1,117 @@
+package dev.deyve.productapi.benchmarks;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import dev.deyve.productapi.configurations.LoggingProperties;
+import dev.deyve.productapi.dtos.ProductDTO;
+import dev.deyve.productapi.loggers.PayloadLogger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logging Benchmark
+ * <p>
+ * Logs one search result page the way the controllers do, through the Log4j API over Logback like the
+ * application, into a discarding stream. fullList is the former toString of the whole page, summary the
+ * count and timing line, sampledPayload the summary plus the page for 1% of the calls. The async queue
+ * blocks instead of dropping here, so every event is written and the variants stay comparable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LoggingBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss.SSS} %5p --- [%15.15t] %-40.40logger{39} : %m%n";
+
+    @Param({"sync", "async"})
+    private String appender;
+
+    private Logger log;
+
+    private PayloadLogger payloadLogger;
+
+    private List<ProductDTO> page;
+
+    private LoggerContext loggerContext;
+
+    @Setup
+    public void setup() {
+
+        loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        loggerContext.reset();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> output = new OutputStreamAppender<>();
+        output.setContext(loggerContext);
+        output.setEncoder(encoder);
+        output.setOutputStream(OutputStream.nullOutputStream());
+        output.start();
+
+        Appender<ILoggingEvent> root = output;
+
+        if ("async".equals(appender)) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(loggerContext);
+            async.setQueueSize(8192);
+            async.setDiscardingThreshold(0);
+            async.setIncludeCallerData(false);
+            async.addAppender(output);
+            async.start();
+            root = async;
+        }
+
+        ch.qos.logback.classic.Logger rootLogger = loggerContext.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        rootLogger.setLevel(Level.INFO);
+        rootLogger.addAppender(root);
+
+        LoggingProperties loggingProperties = new LoggingProperties();
+        loggingProperties.setPayloadSampleRate(0.01);
+
+        log = LogManager.getLogger(LoggingBenchmark.class);
+        payloadLogger = new PayloadLogger(loggingProperties);
+        page = BenchmarkData.productDTOs(PAGE_SIZE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        loggerContext.stop();
+    }
+
+    @Benchmark
+    public void fullList() {
+        log.info("Product DTO Search List: {} ", page);
+    }
+
+    @Benchmark
+    public void summary() {
+        log.info("searchProducts q={} min_price={} max_price={} count={} millis={}", "phone", BigDecimal.ZERO, BigDecimal.TEN,
+                page.size(), 3L);
+    }
+
+    @Benchmark
+    public void sampledPayload() {
+        summary();
+        payloadLogger.log("searchProducts", page);
+    }
+}
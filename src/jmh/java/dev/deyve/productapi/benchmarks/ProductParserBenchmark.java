@@ -0,0 +1,40 @@
+package dev.deyve.productapi.benchmarks;
+
+import dev.deyve.productapi.dtos.ProductDTO;
+import dev.deyve.productapi.models.Product;
+import dev.deyve.productapi.parsers.ProductParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product Parser Benchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ProductParserBenchmark {
+
+    private ProductDTO productDTO;
+
+    private Product product;
+
+    @Setup
+    public void setup() {
+        productDTO = BenchmarkData.productDTOs(1).get(0);
+        product = BenchmarkData.products(1).get(0);
+    }
+
+    @Benchmark
+    public Product toProduct() {
+        return ProductParser.toProduct(productDTO);
+    }
+
+    @Benchmark
+    public ProductDTO toProductDTO() {
+        return ProductParser.toProductDTO(product);
+    }
+}
@@ -0,0 +1,122 @@
+package dev.deyve.productapi.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import dev.deyve.productapi.dtos.ProductDTO;
+import dev.deyve.productapi.models.Product;
+import dev.deyve.productapi.serializers.ProductDTOSerializer;
+import dev.deyve.productapi.serializers.ProductSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product Serialization Benchmark
+ * <p>
+ * Uses an ObjectMapper built with Spring Boot's defaults and the product serializers, the same way the
+ * controllers get theirs. The *Reflection variants use Jackson's bean serializer instead, and the *Stream
+ * variants write to a discarding stream, like a response, so the result array does not hide the
+ * serializer's own garbage. Compare allocations with -Djmh.args="Serialization -prof gc".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ProductSerializationBenchmark {
+
+    private ObjectWriter productWriter;
+
+    private ObjectReader productReader;
+
+    private ObjectWriter listWriter;
+
+    private ObjectWriter reflectionListWriter;
+
+    private ObjectWriter entityListWriter;
+
+    private ObjectReader listReader;
+
+    private ProductDTO productDTO;
+
+    private List<ProductDTO> productDTOs;
+
+    private List<Product> products;
+
+    private byte[] productJson;
+
+    private byte[] listJson;
+
+    @Setup
+    public void setup() throws IOException {
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .serializers(new ProductDTOSerializer(), new ProductSerializer())
+                .build();
+        ObjectMapper reflectionMapper = Jackson2ObjectMapperBuilder.json().build();
+        TypeReference<List<ProductDTO>> listType = new TypeReference<>() {
+        };
+        TypeReference<List<Product>> entityListType = new TypeReference<>() {
+        };
+
+        productWriter = objectMapper.writerFor(ProductDTO.class);
+        productReader = objectMapper.readerFor(ProductDTO.class);
+        listWriter = objectMapper.writerFor(listType);
+        listReader = objectMapper.readerFor(listType);
+        reflectionListWriter = reflectionMapper.writerFor(listType);
+        entityListWriter = objectMapper.writerFor(entityListType);
+
+        productDTOs = BenchmarkData.productDTOs(BenchmarkData.LIST_SIZE);
+        products = BenchmarkData.products(BenchmarkData.LIST_SIZE);
+        productDTO = productDTOs.get(0);
+        productJson = productWriter.writeValueAsBytes(productDTO);
+        listJson = listWriter.writeValueAsBytes(productDTOs);
+    }
+
+    @Benchmark
+    public byte[] serializeProduct() throws IOException {
+        return productWriter.writeValueAsBytes(productDTO);
+    }
+
+    @Benchmark
+    public ProductDTO deserializeProduct() throws IOException {
+        return productReader.readValue(productJson);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws IOException {
+        return listWriter.writeValueAsBytes(productDTOs);
+    }
+
+    @Benchmark
+    public byte[] serializeListReflection() throws IOException {
+        return reflectionListWriter.writeValueAsBytes(productDTOs);
+    }
+
+    @Benchmark
+    public void serializeListStream() throws IOException {
+        listWriter.writeValue(OutputStream.nullOutputStream(), productDTOs);
+    }
+
+    @Benchmark
+    public void serializeListReflectionStream() throws IOException {
+        reflectionListWriter.writeValue(OutputStream.nullOutputStream(), productDTOs);
+    }
+
+    @Benchmark
+    public void serializeEntityListStream() throws IOException {
+        entityListWriter.writeValue(OutputStream.nullOutputStream(), products);
+    }
+
+    @Benchmark
+    public List<ProductDTO> deserializeList() throws IOException {
+        return listReader.readValue(listJson);
+    }
+}
@@ -0,0 +1,104 @@
+package dev.deyve.productapi.benchmarks;
+
+import dev.deyve.productapi.ProductApiApplication;
+import dev.deyve.productapi.dtos.BatchItemResultDTO;
+import dev.deyve.productapi.dtos.ProductDTO;
+import dev.deyve.productapi.models.Product;
+import dev.deyve.productapi.repositories.ProductRepository;
+import dev.deyve.productapi.services.ProductBatchService;
+import dev.deyve.productapi.services.ProductList;
+import dev.deyve.productapi.services.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Product Service Benchmark
+ * <p>
+ * Runs the service against an in-memory H2 database, so it measures the Java side of each call
+ * (Spring proxies, cache, Hibernate, mapping) rather than network and PostgreSQL. The full-text
+ * search and the change feed outbox are PostgreSQL-only and are not covered here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private ProductService productService;
+
+    private ProductRepository productRepository;
+
+    private List<UUID> ids;
+
+    @Setup
+    public void setup() {
+
+        context = new SpringApplicationBuilder(ProductApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.flyway.enabled=false",
+                        "--product.changes.enabled=false",
+                        "--logging.level.root=WARN");
+
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+
+        List<ProductDTO> productDTOs = BenchmarkData.productDTOs(BenchmarkData.LIST_SIZE);
+
+        ids = context.getBean(ProductBatchService.class).saveProducts(productDTOs).getItems().stream()
+                .map(BatchItemResultDTO::getId)
+                .collect(Collectors.toList());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private UUID randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    @Benchmark
+    public Product findByExternalIdCached() {
+        return productService.findByExternalId(randomId());
+    }
+
+    @Benchmark
+    public Optional<Product> findByExternalIdRepository() {
+        return productRepository.findByExternalId(randomId());
+    }
+
+    @Benchmark
+    public ProductList findProductsFirstPage() {
+        return productService.findProducts(null, 100);
+    }
+
+    @Benchmark
+    public ProductList findProductsAfterCursor() {
+        return productService.findProducts(randomId(), 100);
+    }
+
+    @Benchmark
+    public ProductDTO saveProduct() {
+        return productService.saveProduct(ProductDTO.builder().name("Benchmark").description("Saved").build());
+    }
+}
@@ -0,0 +1,17 @@
+package dev.deyve.productapi.caches;
+
+import dev.deyve.productapi.dtos.CacheInvalidationDTO;
+
+import java.util.function.Consumer;
+
+/**
+ * Cache Invalidation Broadcaster
+ * <p>
+ * Carries product cache invalidations to every instance, the publishing one included.
+ */
+public interface CacheInvalidationBroadcaster {
+
+    void publish(CacheInvalidationDTO invalidation);
+
+    void subscribe(Consumer<CacheInvalidationDTO> subscriber);
+}
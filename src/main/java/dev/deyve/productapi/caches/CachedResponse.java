@@ -0,0 +1,140 @@
+package dev.deyve.productapi.caches;
+
+import dev.deyve.productapi.parsers.AcceptEncodingParser;
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cached Response
+ * <p>
+ * A 200 response encoded once: the JSON, its gzip variant when it is large enough to be worth one, and
+ * read-only headers for each, so a hit builds nothing but the ResponseEntity around them. The gzip variant
+ * has bytes of its own, so its strong ETag gets the -gzip suffix.
+ */
+@Getter
+public final class CachedResponse {
+
+    public static final String GZIP_ETAG_SUFFIX = "-gzip";
+
+    private static final String GZIP = "gzip";
+
+    private final byte[] body;
+
+    private final byte[] gzipBody;
+
+    private final HttpHeaders headers;
+
+    private final HttpHeaders gzipHeaders;
+
+    private final String eTag;
+
+    private final Instant lastModified;
+
+    private final int count;
+
+    private CachedResponse(byte[] body, byte[] gzipBody, HttpHeaders headers, HttpHeaders gzipHeaders, String eTag, Instant lastModified,
+                           int count) {
+        this.body = body;
+        this.gzipBody = gzipBody;
+        this.headers = headers;
+        this.gzipHeaders = gzipHeaders;
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+        this.count = count;
+    }
+
+    /**
+     * @param body            encoded JSON
+     * @param responseHeaders headers of the response, validators included
+     * @param count           products in the body
+     * @param gzipMinSize     body size from which a gzip variant is kept, negative for none
+     */
+    public static CachedResponse of(byte[] body, HttpHeaders responseHeaders, int count, long gzipMinSize) {
+
+        byte[] gzipBody = gzipMinSize >= 0 && body.length >= gzipMinSize ? gzip(body) : null;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(responseHeaders);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setContentLength(body.length);
+
+        HttpHeaders gzipHeaders = null;
+
+        if (gzipBody != null) {
+            headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+            gzipHeaders = new HttpHeaders();
+            gzipHeaders.putAll(headers);
+            gzipHeaders.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+            gzipHeaders.setContentLength(gzipBody.length);
+            if (responseHeaders.getETag() != null) {
+                gzipHeaders.setETag(gzipETag(responseHeaders.getETag()));
+            }
+        }
+
+        long lastModified = responseHeaders.getLastModified();
+
+        return new CachedResponse(body, gzipBody, HttpHeaders.readOnlyHttpHeaders(headers),
+                gzipHeaders == null ? null : HttpHeaders.readOnlyHttpHeaders(gzipHeaders), responseHeaders.getETag(),
+                lastModified < 0 ? null : Instant.ofEpochMilli(lastModified), count);
+    }
+
+    /**
+     * The gzip variant when there is one and the request accepts it, the JSON otherwise.
+     */
+    public ResponseEntity<byte[]> toResponseEntity(HttpHeaders requestHeaders) {
+
+        if (sendsGzip(requestHeaders)) {
+            return new ResponseEntity<>(gzipBody, gzipHeaders, HttpStatus.OK);
+        }
+
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    /**
+     * The ETag of the variant {@link #toResponseEntity} picks, for a 304 in its place.
+     */
+    public String getETag(HttpHeaders requestHeaders) {
+        return eTag != null && sendsGzip(requestHeaders) ? gzipETag(eTag) : eTag;
+    }
+
+    /**
+     * "1" becomes "1-gzip", W/"1" W/"1-gzip".
+     */
+    public static String gzipETag(String eTag) {
+        return eTag.substring(0, eTag.length() - 1) + GZIP_ETAG_SUFFIX + '"';
+    }
+
+    /**
+     * Bytes held, for the weigher of the page cache.
+     */
+    public int getWeight() {
+        return body.length + (gzipBody == null ? 0 : gzipBody.length);
+    }
+
+    private boolean sendsGzip(HttpHeaders requestHeaders) {
+        return gzipBody != null && AcceptEncodingParser.acceptsGzip(requestHeaders.getFirst(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    private static byte[] gzip(byte[] body) {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 4 + 64);
+
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+}
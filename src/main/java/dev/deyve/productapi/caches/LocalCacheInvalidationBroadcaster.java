@@ -0,0 +1,28 @@
+package dev.deyve.productapi.caches;
+
+import dev.deyve.productapi.dtos.CacheInvalidationDTO;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Local Cache Invalidation Broadcaster
+ * <p>
+ * Delivers on the publishing thread to the subscribers of this instance: enough for a single instance, and
+ * shared between several application contexts it stands in for a cluster in tests.
+ */
+public class LocalCacheInvalidationBroadcaster implements CacheInvalidationBroadcaster {
+
+    private final List<Consumer<CacheInvalidationDTO>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(CacheInvalidationDTO invalidation) {
+        subscribers.forEach(subscriber -> subscriber.accept(invalidation));
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidationDTO> subscriber) {
+        subscribers.add(subscriber);
+    }
+}
@@ -0,0 +1,192 @@
+package dev.deyve.productapi.caches;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.deyve.productapi.dtos.CacheInvalidationDTO;
+import lombok.extern.log4j.Log4j2;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Postgres Cache Invalidation Broadcaster
+ * <p>
+ * Publishes with pg_notify through the pool, from its own thread so the notification is not sent inside the
+ * writer's transaction, and listens on a dedicated connection outside the pool. A listener that lost its
+ * connection may have missed notifications, so after reconnecting it tells the subscribers to drop everything.
+ */
+@Log4j2
+public class PostgresCacheInvalidationBroadcaster implements CacheInvalidationBroadcaster, Closeable {
+
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    /**
+     * NOTIFY payloads must stay under 8000 bytes; a product takes about 60 of them.
+     */
+    private static final int PRODUCTS_PER_NOTIFICATION = 100;
+
+    private static final int POLL_MILLIS = 1000;
+
+    private static final long RECONNECT_MILLIS = 5000;
+
+    private final DataSourceProperties dataSourceProperties;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final String channel;
+
+    private final List<Consumer<CacheInvalidationDTO>> subscribers = new CopyOnWriteArrayList<>();
+
+    private final ExecutorService publisher = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "cache-invalidation-publisher"));
+
+    private final Thread listener = daemon(this::listen, "cache-invalidation-listener");
+
+    private volatile boolean running = true;
+
+    public PostgresCacheInvalidationBroadcaster(DataSourceProperties dataSourceProperties, JdbcTemplate jdbcTemplate,
+                                                ObjectMapper objectMapper, String channel) {
+
+        if (!CHANNEL.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid channel: " + channel);
+        }
+
+        this.dataSourceProperties = dataSourceProperties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+
+        listener.start();
+    }
+
+    @Override
+    public void publish(CacheInvalidationDTO invalidation) {
+        publisher.execute(() -> {
+            int size = Math.max(invalidation.getIds().size(), invalidation.getExternalIds().size());
+            for (int from = 0; from == 0 || from < size; from += PRODUCTS_PER_NOTIFICATION) {
+                notify(CacheInvalidationDTO.builder()
+                        .origin(invalidation.getOrigin())
+                        .ids(slice(invalidation.getIds(), from))
+                        .externalIds(slice(invalidation.getExternalIds(), from))
+                        .all(invalidation.isAll())
+                        .build());
+            }
+        });
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidationDTO> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @Override
+    public void close() {
+
+        running = false;
+        publisher.shutdown();
+        listener.interrupt();
+    }
+
+    private void notify(CacheInvalidationDTO invalidation) {
+
+        try {
+            jdbcTemplate.query("select pg_notify(?, ?)", (ResultSetExtractor<Void>) resultSet -> null,
+                    channel, objectMapper.writeValueAsString(invalidation));
+        } catch (JsonProcessingException | DataAccessException e) {
+            log.warn("Cache invalidation not published, other instances catch up when their entries expire", e);
+        }
+    }
+
+    private void listen() {
+
+        boolean reconnected = false;
+
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+                 Statement statement = connection.createStatement()) {
+
+                statement.execute("listen " + channel);
+                log.info("Listening for cache invalidations on {}", channel);
+
+                if (reconnected) {
+                    deliver(CacheInvalidationDTO.builder().ids(List.of()).externalIds(List.of()).all(true).build());
+                }
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            deliver(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Cache invalidation listener failed, reconnecting in {} ms", RECONNECT_MILLIS, e);
+                    reconnected = true;
+                    pause();
+                }
+            }
+        }
+    }
+
+    private void deliver(String payload) {
+
+        try {
+            deliver(objectMapper.readValue(payload, CacheInvalidationDTO.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring cache invalidation {}", payload, e);
+        }
+    }
+
+    private void deliver(CacheInvalidationDTO invalidation) {
+
+        for (Consumer<CacheInvalidationDTO> subscriber : subscribers) {
+            try {
+                subscriber.accept(invalidation);
+            } catch (RuntimeException e) {
+                log.warn("Cache invalidation subscriber failed", e);
+            }
+        }
+    }
+
+    private void pause() {
+
+        try {
+            Thread.sleep(RECONNECT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static <T> List<T> slice(List<T> list, int from) {
+        return from >= list.size() ? List.of() : list.subList(from, Math.min(from + PRODUCTS_PER_NOTIFICATION, list.size()));
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+
+        return thread;
+    }
+}
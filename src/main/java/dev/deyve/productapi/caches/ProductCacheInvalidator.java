@@ -0,0 +1,164 @@
+package dev.deyve.productapi.caches;
+
+import dev.deyve.productapi.dtos.CacheInvalidationDTO;
+import dev.deyve.productapi.models.Product;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static dev.deyve.productapi.configurations.CacheConfiguration.PRODUCTS_CACHE;
+
+/**
+ * Product Cache Invalidator
+ * <p>
+ * Every product write goes through here, inside its transaction. Locally it does what Hibernate does for its
+ * own bulk statements, which the native UPDATE ... RETURNING bypasses: the product query space is marked stale
+ * before the commit, so a cached query running meanwhile is not kept, and invalidated with the written
+ * entities after it. Once committed the write is broadcast, and the other instances also evict the products
+ * cache, which this one already evicts in the services.
+ */
+@Log4j2
+public class ProductCacheInvalidator {
+
+    private final String origin = UUID.randomUUID().toString();
+
+    private final CacheInvalidationBroadcaster broadcaster;
+
+    private final CacheManager cacheManager;
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    /**
+     * @param sessionFactory null when the second-level cache is off
+     */
+    public ProductCacheInvalidator(CacheInvalidationBroadcaster broadcaster, CacheManager cacheManager,
+                                   @Nullable SessionFactoryImplementor sessionFactory) {
+        this.broadcaster = broadcaster;
+        this.cacheManager = cacheManager;
+        this.sessionFactory = sessionFactory;
+
+        broadcaster.subscribe(this::onInvalidation);
+    }
+
+    /**
+     * Invalidate
+     *
+     * @param products List<Product> created or updated, with their ids
+     */
+    public void invalidate(Collection<Product> products) {
+        invalidate(products.stream().map(Product::getId).collect(Collectors.toList()),
+                products.stream().map(Product::getExternalId).collect(Collectors.toList()));
+    }
+
+    /**
+     * Invalidate Deleted
+     * <p>
+     * Deletes only know the external ids; the entities they leave in the second-level cache are no longer
+     * reachable from a query and expire.
+     *
+     * @param externalIds Collection<UUID>
+     */
+    public void invalidateDeleted(Collection<UUID> externalIds) {
+        invalidate(List.of(), List.copyOf(externalIds));
+    }
+
+    private void invalidate(List<Long> ids, List<UUID> externalIds) {
+
+        if (externalIds.isEmpty()) {
+            return;
+        }
+
+        CacheInvalidationDTO invalidation = CacheInvalidationDTO.builder()
+                .origin(origin)
+                .ids(ids)
+                .externalIds(externalIds)
+                .build();
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictSecondLevel(invalidation);
+            broadcaster.publish(invalidation);
+            return;
+        }
+
+        withSession(session -> sessionFactory.getCache().getTimestampsCache().preInvalidate(querySpaces(), session));
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+
+                evictSecondLevel(invalidation);
+
+                if (status == STATUS_COMMITTED) {
+                    broadcaster.publish(invalidation);
+                }
+            }
+        });
+    }
+
+    private void onInvalidation(CacheInvalidationDTO invalidation) {
+
+        if (origin.equals(invalidation.getOrigin())) {
+            return;
+        }
+
+        log.debug("Cache invalidation from {}: {} products", invalidation.getOrigin(), invalidation.getExternalIds().size());
+
+        Cache cache = cacheManager.getCache(PRODUCTS_CACHE);
+
+        if (cache != null) {
+            if (invalidation.isAll()) {
+                cache.clear();
+            } else {
+                invalidation.getExternalIds().forEach(cache::evict);
+            }
+        }
+
+        evictSecondLevel(invalidation);
+    }
+
+    private void evictSecondLevel(CacheInvalidationDTO invalidation) {
+
+        if (sessionFactory == null) {
+            return;
+        }
+
+        if (invalidation.isAll()) {
+            sessionFactory.getCache().evictEntityData(Product.class);
+        } else {
+            invalidation.getIds().forEach(id -> sessionFactory.getCache().evictEntityData(Product.class, id));
+        }
+
+        withSession(session -> sessionFactory.getCache().getTimestampsCache().invalidate(querySpaces(), session));
+    }
+
+    private Serializable[] querySpaces() {
+        return sessionFactory.getMetamodel().entityPersister(Product.class).getQuerySpaces();
+    }
+
+    /**
+     * The timestamps cache wants a session, only for its events and statistics; opening one takes no connection.
+     */
+    private void withSession(Consumer<SharedSessionContractImplementor> action) {
+
+        if (sessionFactory == null) {
+            return;
+        }
+
+        try (Session session = sessionFactory.openSession()) {
+            action.accept((SharedSessionContractImplementor) session);
+        }
+    }
+}
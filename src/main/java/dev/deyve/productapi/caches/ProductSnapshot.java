@@ -0,0 +1,541 @@
+package dev.deyve.productapi.caches;
+
+import dev.deyve.productapi.models.Product;
+import dev.deyve.productapi.parsers.SearchQueryParser;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Product Snapshot
+ * <p>
+ * Immutable copy of the whole catalog, shared by readers without any lock: a hash map by external id, the
+ * products in external id order for the keyset pages, in price order for the price range of a search, and
+ * a sorted word index for its terms. {@link #apply} returns a new snapshot that reuses what a change does not
+ * touch; the old one stays valid for the readers still holding it.
+ * <p>
+ * Products are held as immutable entries copied out of the entities they come from, and every read hands out
+ * new Product instances, so a caller changing one, or a cache holding it, leaves the snapshot as it was.
+ * <p>
+ * Pages are in PostgreSQL's uuid order, so a cursor works the same against the snapshot and the database.
+ * Searches match like the prefix tsquery of {@link SearchQueryParser}, but rank by the number of matching
+ * words, which is close to, not the same as, ts_rank.
+ */
+public final class ProductSnapshot {
+
+    /**
+     * PostgreSQL compares uuids as unsigned bytes; {@link UUID#compareTo} compares signed longs.
+     */
+    public static final Comparator<UUID> EXTERNAL_ID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private static final Comparator<Entry> BY_EXTERNAL_ID = Comparator.comparing(entry -> entry.externalId, EXTERNAL_ID_ORDER);
+
+    private static final Comparator<Entry> BY_PRICE = Comparator
+            .comparing((Entry entry) -> entry.price, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(BY_EXTERNAL_ID);
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private static final String[] NO_TOKENS = new String[0];
+
+    private static final ProductSnapshot EMPTY = new ProductSnapshot(Map.of(), NO_ENTRIES, NO_ENTRIES, NO_TOKENS, Map.of(), null, 0);
+
+    private final Map<UUID, Entry> entries;
+
+    private final Entry[] byExternalId;
+
+    private final Entry[] byPrice;
+
+    private final String[] tokens;
+
+    private final Map<String, Entry[]> postings;
+
+    private final LocalDateTime lastUpdatedAt;
+
+    private final long estimatedBytes;
+
+    private ProductSnapshot(Map<UUID, Entry> entries, Entry[] byExternalId, Entry[] byPrice, String[] tokens, Map<String, Entry[]> postings,
+                            LocalDateTime lastUpdatedAt, long estimatedBytes) {
+        this.entries = entries;
+        this.byExternalId = byExternalId;
+        this.byPrice = byPrice;
+        this.tokens = tokens;
+        this.postings = postings;
+        this.lastUpdatedAt = lastUpdatedAt;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    public static ProductSnapshot of(Collection<Product> products) {
+        return EMPTY.apply(products, List.of());
+    }
+
+    /**
+     * Apply
+     *
+     * @param upserts  products created or updated; a product already held at the same version and update time is skipped
+     * @param deletes  external ids no longer in the catalog
+     * @return the new snapshot, or this one when nothing changed
+     */
+    public ProductSnapshot apply(Collection<Product> upserts, Collection<UUID> deletes) {
+
+        Map<UUID, Entry> nextEntries = new HashMap<>(entries);
+        Set<Entry> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Entry> added = new ArrayList<>();
+        Map<String, String> newTokens = new HashMap<>();
+        LocalDateTime nextLastUpdatedAt = lastUpdatedAt;
+
+        for (Product product : upserts) {
+
+            Entry previous = nextEntries.get(product.getExternalId());
+
+            if (previous != null && Objects.equals(previous.version, product.getVersion())
+                    && Objects.equals(previous.updatedAt, product.getUpdatedAt())) {
+                continue;
+            }
+
+            Entry entry = new Entry(product, tokens(product, newTokens));
+
+            if (previous != null) {
+                removed.add(previous);
+                added.remove(previous);
+            }
+
+            nextEntries.put(product.getExternalId(), entry);
+            added.add(entry);
+
+            if (product.getUpdatedAt() != null && (nextLastUpdatedAt == null || product.getUpdatedAt().isAfter(nextLastUpdatedAt))) {
+                nextLastUpdatedAt = product.getUpdatedAt();
+            }
+        }
+
+        for (UUID externalId : deletes) {
+
+            Entry previous = nextEntries.remove(externalId);
+
+            if (previous != null) {
+                removed.add(previous);
+                added.remove(previous);
+            }
+        }
+
+        if (added.isEmpty() && removed.isEmpty()) {
+            return this;
+        }
+
+        // only what changed is measured, so a refresh costs the size of the change, not of the catalog
+        long nextEstimatedBytes = estimatedBytes;
+
+        for (Entry entry : removed) {
+            // removed may also hold entries added and replaced within this call
+            if (entries.get(entry.externalId) == entry) {
+                nextEstimatedBytes -= MemoryEstimate.of(entry);
+            }
+        }
+
+        for (Entry entry : added) {
+            nextEstimatedBytes += MemoryEstimate.of(entry);
+        }
+
+        Map<String, List<Entry>> addedByToken = new HashMap<>();
+
+        for (Entry entry : added) {
+            for (String token : entry.tokens) {
+                addedByToken.computeIfAbsent(token, key -> new ArrayList<>()).add(entry);
+            }
+        }
+
+        Set<String> touched = new HashSet<>(addedByToken.keySet());
+        removed.forEach(entry -> touched.addAll(Arrays.asList(entry.tokens)));
+
+        Map<String, Entry[]> nextPostings = new HashMap<>(postings);
+        boolean tokensChanged = !newTokens.isEmpty();
+
+        for (String token : touched) {
+
+            Entry[] posting = merge(postings.getOrDefault(token, NO_ENTRIES), removed,
+                    addedByToken.getOrDefault(token, List.of()), BY_EXTERNAL_ID);
+
+            if (posting.length == 0) {
+                nextPostings.remove(token);
+                tokensChanged = true;
+            } else {
+                nextPostings.put(token, posting);
+            }
+
+            if (postings.containsKey(token) != (posting.length > 0)) {
+                nextEstimatedBytes += posting.length > 0 ? MemoryEstimate.of(token) : -MemoryEstimate.of(token);
+            }
+        }
+
+        String[] nextTokens = tokens;
+
+        if (tokensChanged) {
+            nextTokens = nextPostings.keySet().toArray(NO_TOKENS);
+            Arrays.sort(nextTokens);
+        }
+
+        return new ProductSnapshot(nextEntries, merge(byExternalId, removed, added, BY_EXTERNAL_ID), merge(byPrice, removed, added, BY_PRICE),
+                nextTokens, nextPostings, nextLastUpdatedAt, nextEstimatedBytes);
+    }
+
+    public Product find(UUID externalId) {
+
+        Entry entry = entries.get(externalId);
+
+        return entry == null ? null : entry.toProduct();
+    }
+
+    /**
+     * Keyset page, like ProductRepository.findByExternalIdGreaterThanOrderByExternalIdAsc.
+     *
+     * @param after cursor, null for the first page
+     * @param limit page size
+     */
+    public List<Product> page(UUID after, int limit) {
+
+        int from = after == null ? 0 : upperBound(byExternalId, entry -> entry.externalId, after, EXTERNAL_ID_ORDER);
+        int to = Math.min(byExternalId.length, from + limit);
+
+        List<Product> page = new ArrayList<>(Math.max(0, to - from));
+
+        for (int i = from; i < to; i++) {
+            page.add(byExternalId[i].toProduct());
+        }
+
+        return page;
+    }
+
+    /**
+     * Search, like ProductRepository.search: every term a word prefix, the price between both bounds.
+     *
+     * @param terms    lower-cased terms, see {@link SearchQueryParser#toTerms}
+     * @param minPrice BigDecimal
+     * @param maxPrice BigDecimal, nothing matches without it, as in SQL
+     */
+    public List<Product> search(List<String> terms, BigDecimal minPrice, BigDecimal maxPrice) {
+
+        if (terms.isEmpty() || minPrice == null || maxPrice == null || minPrice.compareTo(maxPrice) > 0) {
+            return List.of();
+        }
+
+        int from = lowerBound(byPrice, entry -> entry.price, minPrice, Comparator.nullsFirst(Comparator.naturalOrder()));
+        int to = upperBound(byPrice, entry -> entry.price, maxPrice, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        // walk whichever is shorter: the price range, or the postings of the rarest term
+        String rarest = null;
+        int rarestCount = Integer.MAX_VALUE;
+
+        for (String term : terms) {
+
+            int count = 0;
+
+            for (int i = lowerBound(tokens, Function.identity(), term, Comparator.naturalOrder()); i < tokens.length && tokens[i].startsWith(term); i++) {
+                count += postings.get(tokens[i]).length;
+            }
+
+            if (count < rarestCount) {
+                rarest = term;
+                rarestCount = count;
+            }
+        }
+
+        List<Scored> hits = new ArrayList<>();
+
+        if (to - from <= rarestCount) {
+            for (int i = from; i < to; i++) {
+                addIfMatches(hits, byPrice[i], terms);
+            }
+        } else {
+            Set<Entry> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int i = lowerBound(tokens, Function.identity(), rarest, Comparator.naturalOrder()); i < tokens.length && tokens[i].startsWith(rarest); i++) {
+                candidates.addAll(Arrays.asList(postings.get(tokens[i])));
+            }
+            for (Entry entry : candidates) {
+                BigDecimal price = entry.price;
+                if (price != null && price.compareTo(minPrice) >= 0 && price.compareTo(maxPrice) <= 0) {
+                    addIfMatches(hits, entry, terms);
+                }
+            }
+        }
+
+        hits.sort(Comparator.comparingInt((Scored scored) -> scored.score).reversed().thenComparing(scored -> scored.entry, BY_EXTERNAL_ID));
+
+        List<Product> products = new ArrayList<>(hits.size());
+        hits.forEach(scored -> products.add(scored.entry.toProduct()));
+
+        return products;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int tokenCount() {
+        return tokens.length;
+    }
+
+    /**
+     * Latest update time held, where the next incremental refresh starts from.
+     */
+    public LocalDateTime getLastUpdatedAt() {
+        return lastUpdatedAt;
+    }
+
+    /**
+     * Heap taken by the entries and the indexes, estimated from the field layout of a 64-bit JVM with
+     * compressed references and compact strings, and kept up to date by each {@link #apply}.
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    private static void addIfMatches(List<Scored> hits, Entry entry, List<String> terms) {
+
+        int score = 0;
+
+        for (String term : terms) {
+
+            int matches = 0;
+
+            for (String token : entry.tokens) {
+                if (token.startsWith(term)) {
+                    matches++;
+                }
+            }
+
+            if (matches == 0) {
+                return;
+            }
+
+            score += matches;
+        }
+
+        hits.add(new Scored(entry, score));
+    }
+
+    /**
+     * Distinct words of the name and description, sharing the String of a word already indexed.
+     */
+    private String[] tokens(Product product, Map<String, String> newTokens) {
+
+        Set<String> words = new HashSet<>(SearchQueryParser.toTerms(product.getName()));
+        words.addAll(SearchQueryParser.toTerms(product.getDescription()));
+
+        String[] result = new String[words.size()];
+        int i = 0;
+
+        for (String word : words) {
+            int index = Arrays.binarySearch(tokens, word);
+            result[i++] = index >= 0 ? tokens[index] : newTokens.computeIfAbsent(word, Function.identity());
+        }
+
+        return result;
+    }
+
+    /**
+     * Sorted base without the removed entries, merged with the added ones.
+     */
+    private static Entry[] merge(Entry[] base, Set<Entry> removed, List<Entry> added, Comparator<Entry> order) {
+
+        Entry[] sortedAdded = added.toArray(NO_ENTRIES);
+        Arrays.sort(sortedAdded, order);
+
+        Entry[] result = new Entry[base.length + sortedAdded.length];
+        int size = 0;
+        int j = 0;
+
+        for (Entry entry : base) {
+
+            if (removed.contains(entry)) {
+                continue;
+            }
+
+            while (j < sortedAdded.length && order.compare(sortedAdded[j], entry) < 0) {
+                result[size++] = sortedAdded[j++];
+            }
+
+            result[size++] = entry;
+        }
+
+        while (j < sortedAdded.length) {
+            result[size++] = sortedAdded[j++];
+        }
+
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * First index whose key is not below the given one.
+     */
+    private static <T, K> int lowerBound(T[] array, Function<T, K> key, K value, Comparator<? super K> order) {
+
+        int low = 0;
+        int high = array.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (order.compare(key.apply(array[middle]), value) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * First index whose key is above the given one.
+     */
+    private static <T, K> int upperBound(T[] array, Function<T, K> key, K value, Comparator<? super K> order) {
+
+        int low = 0;
+        int high = array.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (order.compare(key.apply(array[middle]), value) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private static final class Entry {
+
+        private final Long id;
+
+        private final UUID externalId;
+
+        private final String name;
+
+        private final String description;
+
+        private final BigDecimal price;
+
+        private final Long version;
+
+        private final LocalDateTime createdAt;
+
+        private final LocalDateTime updatedAt;
+
+        private final String[] tokens;
+
+        private Entry(Product product, String[] tokens) {
+            this.id = product.getId();
+            this.externalId = product.getExternalId();
+            this.name = product.getName();
+            this.description = product.getDescription();
+            this.price = product.getPrice();
+            this.version = product.getVersion();
+            this.createdAt = product.getCreatedAt();
+            this.updatedAt = product.getUpdatedAt();
+            this.tokens = tokens;
+        }
+
+        private Product toProduct() {
+
+            return Product.builder()
+                    .id(id)
+                    .externalId(externalId)
+                    .name(name)
+                    .description(description)
+                    .price(price)
+                    .version(version)
+                    .createdAt(createdAt)
+                    .updatedAt(updatedAt)
+                    .build();
+        }
+    }
+
+    private static final class Scored {
+
+        private final Entry entry;
+
+        private final int score;
+
+        private Scored(Entry entry, int score) {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Shallow sizes on a 64-bit JVM with compressed references: 12 byte object headers, 16 byte array
+     * headers, 4 byte references, everything padded to 8 bytes.
+     */
+    private static final class MemoryEstimate {
+
+        private static final long BOXED_LONG = 16;
+
+        private static final long UUID_SIZE = 32;
+
+        private static final long BIG_DECIMAL = 40;
+
+        private static final long LOCAL_DATE_TIME = 72;
+
+        private static final long ENTRY = 48;
+
+        private static final long HASH_MAP_NODE = 32;
+
+        private static final long REFERENCE = 4;
+
+        private static long of(Entry entry) {
+
+            return ENTRY + UUID_SIZE + string(entry.name) + string(entry.description)
+                    + (entry.id == null ? 0 : BOXED_LONG)
+                    + (entry.version == null ? 0 : BOXED_LONG)
+                    + (entry.price == null ? 0 : BIG_DECIMAL)
+                    + (entry.createdAt == null ? 0 : LOCAL_DATE_TIME)
+                    + (entry.updatedAt == null ? 0 : LOCAL_DATE_TIME)
+                    + array(entry.tokens.length)
+                    // hash map node and about two table slots, both ordered arrays, one posting per word
+                    + HASH_MAP_NODE + 2 * REFERENCE + 2 * REFERENCE + entry.tokens.length * REFERENCE;
+        }
+
+        /**
+         * A word: its string, its postings map node and array, and its slot in the sorted words.
+         */
+        private static long of(String token) {
+            return string(token) + HASH_MAP_NODE + 2 * REFERENCE + array(0) + REFERENCE;
+        }
+
+        private static long string(String value) {
+
+            if (value == null) {
+                return 0;
+            }
+
+            boolean latin1 = value.chars().allMatch(c -> c < 256);
+
+            return 24 + align(16 + (long) value.length() * (latin1 ? 1 : 2));
+        }
+
+        private static long array(int references) {
+            return align(16 + references * REFERENCE);
+        }
+
+        private static long align(long size) {
+            return (size + 7) & ~7;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package dev.deyve.productapi.caches;
+
+import dev.deyve.productapi.configurations.SnapshotProperties;
+import dev.deyve.productapi.dtos.CacheInvalidationDTO;
+import dev.deyve.productapi.models.Product;
+import dev.deyve.productapi.repositories.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Product Snapshot Manager
+ * <p>
+ * Holds the current {@link ProductSnapshot} and replaces it, on a single thread, with one that includes the
+ * products updated since its latest update time. Updated rows carry their time but deleted ones leave nothing
+ * behind, so the ids of every cache invalidation, from this instance or another, are read back as well: those
+ * that are gone are dropped. A periodic full rebuild catches what neither saw. Caches holding what was read
+ * from a snapshot subscribe to its replacements, which land after the write's own invalidation.
+ */
+@Log4j2
+public class ProductSnapshotManager {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final AtomicReference<ProductSnapshot> snapshot = new AtomicReference<>();
+
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+
+    private final List<Consumer<CacheInvalidationDTO>> subscribers = new CopyOnWriteArrayList<>();
+
+    private final ProductRepository productRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ThreadPoolTaskScheduler snapshotScheduler;
+
+    private final SnapshotProperties snapshotProperties;
+
+    private volatile boolean rebuildRequested = true;
+
+    private volatile long refreshedAtNanos = System.nanoTime();
+
+    public ProductSnapshotManager(ProductRepository productRepository, TransactionTemplate transactionTemplate,
+                                  ThreadPoolTaskScheduler snapshotScheduler, SnapshotProperties snapshotProperties,
+                                  CacheInvalidationBroadcaster broadcaster, @Nullable MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager(), transactionTemplate);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.snapshotScheduler = snapshotScheduler;
+        this.snapshotProperties = snapshotProperties;
+
+        broadcaster.subscribe(this::onInvalidation);
+
+        if (meterRegistry != null) {
+            registerMetrics(meterRegistry);
+        }
+    }
+
+    @PostConstruct
+    void schedule() {
+        // the first refresh runs right away and builds the snapshot
+        snapshotScheduler.scheduleWithFixedDelay(this::refresh, snapshotProperties.getRefreshInterval());
+        snapshotScheduler.scheduleWithFixedDelay(this::requestRebuild, Instant.now().plus(snapshotProperties.getRebuildInterval()),
+                snapshotProperties.getRebuildInterval());
+    }
+
+    /**
+     * @return the current snapshot, null until the first one is built
+     */
+    @Nullable
+    public ProductSnapshot current() {
+        return snapshot.get();
+    }
+
+    /**
+     * Told, after each replacement of the snapshot, which products it changed; everything after a rebuild.
+     */
+    public void subscribe(Consumer<CacheInvalidationDTO> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Time since the snapshot was last brought up to date with the database.
+     */
+    public long getAgeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - refreshedAtNanos);
+    }
+
+    private void onInvalidation(CacheInvalidationDTO invalidation) {
+
+        if (invalidation.isAll()) {
+            rebuildRequested = true;
+        } else {
+            pending.addAll(invalidation.getExternalIds());
+        }
+
+        if (refreshQueued.compareAndSet(false, true)) {
+            snapshotScheduler.execute(this::refresh);
+        }
+    }
+
+    private void requestRebuild() {
+        rebuildRequested = true;
+        refresh();
+    }
+
+    private void refresh() {
+
+        refreshQueued.set(false);
+
+        ProductSnapshot current = snapshot.get();
+
+        if (current == null || rebuildRequested) {
+            rebuild();
+            return;
+        }
+
+        List<UUID> externalIds = new ArrayList<>(pending);
+        pending.removeAll(externalIds);
+
+        try {
+            LocalDateTime since = current.getLastUpdatedAt() == null ? EPOCH : current.getLastUpdatedAt().minus(snapshotProperties.getOverlap());
+
+            List<Product> updated = readOnlyTransaction.execute(status -> productRepository.findUpdatedSince(since));
+            List<Product> invalidated = findByExternalIds(externalIds);
+
+            Set<UUID> found = invalidated.stream().map(Product::getExternalId).collect(Collectors.toSet());
+            List<UUID> deleted = externalIds.stream().filter(id -> !found.contains(id)).collect(Collectors.toList());
+
+            ProductSnapshot next = current.apply(Stream.concat(updated.stream(), invalidated.stream()).collect(Collectors.toList()), deleted);
+
+            if (next != current) {
+                snapshot.set(next);
+                publish(CacheInvalidationDTO.builder()
+                        .ids(List.of())
+                        .externalIds(Stream.concat(Stream.concat(updated.stream(), invalidated.stream()).map(Product::getExternalId), deleted.stream())
+                                .distinct()
+                                .collect(Collectors.toList()))
+                        .build());
+                log.debug("Product snapshot refreshed: {} products, {} updated, {} deleted", next.size(), updated.size() + invalidated.size(),
+                        deleted.size());
+            }
+
+            refreshedAtNanos = System.nanoTime();
+        } catch (RuntimeException e) {
+            pending.addAll(externalIds);
+            log.warn("Product snapshot refresh failed, serving the previous one", e);
+        }
+    }
+
+    private void rebuild() {
+
+        rebuildRequested = false;
+        pending.clear();
+
+        try {
+            long started = System.nanoTime();
+
+            List<Product> products = readOnlyTransaction.execute(status -> {
+                try (Stream<Product> stream = productRepository.streamAll()) {
+                    return stream.collect(Collectors.toList());
+                }
+            });
+
+            ProductSnapshot next = ProductSnapshot.of(products);
+            ProductSnapshot previous = snapshot.getAndSet(next);
+            refreshedAtNanos = System.nanoTime();
+
+            if (previous != null) {
+                publish(CacheInvalidationDTO.builder().ids(List.of()).externalIds(List.of()).all(true).build());
+            }
+
+            log.info("Product snapshot built in {} ms: {} products, {} words, {} bytes, {} bytes per product",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), next.size(), next.tokenCount(), next.getEstimatedBytes(),
+                    next.size() == 0 ? 0 : next.getEstimatedBytes() / next.size());
+        } catch (RuntimeException e) {
+            rebuildRequested = true;
+            log.warn("Product snapshot rebuild failed, {}", snapshot.get() == null ? "reading from the database" : "serving the previous one", e);
+        }
+    }
+
+    private void publish(CacheInvalidationDTO invalidation) {
+        subscribers.forEach(subscriber -> subscriber.accept(invalidation));
+    }
+
+    private List<Product> findByExternalIds(List<UUID> externalIds) {
+
+        List<Product> products = new ArrayList<>();
+
+        for (int from = 0; from < externalIds.size(); from += CHUNK_SIZE) {
+            List<UUID> chunk = externalIds.subList(from, Math.min(from + CHUNK_SIZE, externalIds.size()));
+            products.addAll(readOnlyTransaction.execute(status -> productRepository.findByExternalIdIn(new HashSet<>(chunk))));
+        }
+
+        return products;
+    }
+
+    private void registerMetrics(MeterRegistry meterRegistry) {
+
+        Gauge.builder("product.snapshot.products", this, manager -> size(manager.current()))
+                .description("Products in the in-memory catalog snapshot")
+                .register(meterRegistry);
+
+        Gauge.builder("product.snapshot.memory", this, manager -> manager.current() == null ? 0 : manager.current().getEstimatedBytes())
+                .description("Estimated heap taken by the catalog snapshot")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        Gauge.builder("product.snapshot.memory.per.product", this, manager -> {
+                    ProductSnapshot current = manager.current();
+                    return current == null || current.size() == 0 ? 0 : (double) current.getEstimatedBytes() / current.size();
+                })
+                .description("Estimated heap per product in the catalog snapshot, indexes included")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        TimeGauge.builder("product.snapshot.age", this, TimeUnit.MILLISECONDS, ProductSnapshotManager::getAgeMillis)
+                .description("Time since the snapshot was last brought up to date")
+                .register(meterRegistry);
+    }
+
+    private static double size(ProductSnapshot snapshot) {
+        return snapshot == null ? 0 : snapshot.size();
+    }
+}
@@ -0,0 +1,84 @@
+package dev.deyve.productapi.caches;
+
+import dev.deyve.productapi.dtos.CacheInvalidationDTO;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Replica Lag Cache Invalidation Broadcaster
+ * <p>
+ * With read replicas, a read right after a write's invalidation can still reach a replica that has not
+ * replayed it, and put the old row back into the caches for every client. So every invalidation received is
+ * delivered to the subscribers of this instance a second time, max-lag later, once the replicas have caught
+ * up. The replay carries no origin: the instance that wrote evicts its own products cache then too.
+ */
+@Log4j2
+public class ReplicaLagCacheInvalidationBroadcaster implements CacheInvalidationBroadcaster, Closeable {
+
+    private final CacheInvalidationBroadcaster delegate;
+
+    private final Duration maxLag;
+
+    private final List<Consumer<CacheInvalidationDTO>> subscribers = new CopyOnWriteArrayList<>();
+
+    private final ScheduledExecutorService replayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-invalidation-replayer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReplicaLagCacheInvalidationBroadcaster(CacheInvalidationBroadcaster delegate, Duration maxLag) {
+        this.delegate = delegate;
+        this.maxLag = maxLag;
+
+        delegate.subscribe(this::deliver);
+    }
+
+    @Override
+    public void publish(CacheInvalidationDTO invalidation) {
+        delegate.publish(invalidation);
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidationDTO> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        replayer.shutdownNow();
+
+        if (delegate instanceof Closeable) {
+            ((Closeable) delegate).close();
+        }
+    }
+
+    private void deliver(CacheInvalidationDTO invalidation) {
+
+        subscribers.forEach(subscriber -> subscriber.accept(invalidation));
+
+        CacheInvalidationDTO replay = CacheInvalidationDTO.builder()
+                .ids(invalidation.getIds())
+                .externalIds(invalidation.getExternalIds())
+                .all(invalidation.isAll())
+                .build();
+
+        replayer.schedule(() -> {
+            try {
+                subscribers.forEach(subscriber -> subscriber.accept(replay));
+            } catch (RuntimeException e) {
+                log.warn("Replayed cache invalidation failed", e);
+            }
+        }, maxLag.toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
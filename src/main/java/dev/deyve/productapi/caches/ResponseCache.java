@@ -0,0 +1,144 @@
+package dev.deyve.productapi.caches;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.deyve.productapi.configurations.ResponseCacheProperties;
+import dev.deyve.productapi.dtos.CacheInvalidationDTO;
+import dev.deyve.productapi.parsers.SearchQueryParser;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static dev.deyve.productapi.configurations.CacheConfiguration.PAGE_RESPONSES_CACHE;
+import static dev.deyve.productapi.configurations.CacheConfiguration.PRODUCT_RESPONSES_CACHE;
+
+/**
+ * Response Cache
+ * <p>
+ * Encoded product responses by externalId, and page and search responses by normalized query. A write evicts
+ * its products and every page, any of which may now hold it or miss it; writes are rare next to reads. What is
+ * read while an invalidation comes in is not kept, since it may predate the write. With the snapshot on, its
+ * replacements invalidate too, for what was read from it between a write and the refresh that brings it in.
+ */
+@Log4j2
+public class ResponseCache {
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Cache products;
+
+    private final Cache pages;
+
+    private final ObjectMapper objectMapper;
+
+    private final long gzipMinSize;
+
+    public ResponseCache(CacheManager cacheManager, ObjectMapper objectMapper, ResponseCacheProperties responseCacheProperties,
+                         CacheInvalidationBroadcaster broadcaster, @Nullable ProductSnapshotManager productSnapshotManager) {
+        this.products = Objects.requireNonNull(cacheManager.getCache(PRODUCT_RESPONSES_CACHE), PRODUCT_RESPONSES_CACHE);
+        this.pages = Objects.requireNonNull(cacheManager.getCache(PAGE_RESPONSES_CACHE), PAGE_RESPONSES_CACHE);
+        this.objectMapper = objectMapper;
+        this.gzipMinSize = responseCacheProperties.getGzipMinSize().toBytes();
+
+        broadcaster.subscribe(this::onInvalidation);
+
+        if (productSnapshotManager != null) {
+            productSnapshotManager.subscribe(this::onInvalidation);
+        }
+    }
+
+    /**
+     * Taken before reading what a response is built from, and handed back to put it.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    @Nullable
+    public CachedResponse getProduct(UUID id) {
+        return products.get(id, CachedResponse.class);
+    }
+
+    @Nullable
+    public CachedResponse getPage(String key) {
+        return pages.get(key, CachedResponse.class);
+    }
+
+    /**
+     * Encodes a product response, keeping it unless an invalidation came in since generation.
+     *
+     * @return the encoded response
+     */
+    public CachedResponse putProduct(UUID id, long generation, ResponseEntity<?> response) {
+        return put(products, id, generation, response, 1);
+    }
+
+    /**
+     * Encodes a page or search response, keeping it unless an invalidation came in since generation.
+     *
+     * @param count products in the page
+     * @return the encoded response
+     */
+    public CachedResponse putPage(String key, long generation, ResponseEntity<?> response, int count) {
+        return put(pages, key, generation, response, count);
+    }
+
+    public static String pageKey(UUID after, Integer limit) {
+        return "products:" + after + ':' + limit;
+    }
+
+    /**
+     * Queries differing only in case, punctuation or the scale of their prices share a key.
+     */
+    public static String searchKey(String q, BigDecimal minPrice, BigDecimal maxPrice) {
+        return "search:" + String.join(" ", SearchQueryParser.toTerms(q)) + ':' + normalize(minPrice) + ':' + normalize(maxPrice);
+    }
+
+    private CachedResponse put(Cache cache, Object key, long generation, ResponseEntity<?> response, int count) {
+
+        CachedResponse cachedResponse;
+
+        try {
+            cachedResponse = CachedResponse.of(objectMapper.writeValueAsBytes(response.getBody()), response.getHeaders(), count, gzipMinSize);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (this.generation.get() == generation) {
+            cache.put(key, cachedResponse);
+            // an invalidation may have cleared the cache between the check and the put
+            if (this.generation.get() != generation) {
+                cache.evict(key);
+            }
+        }
+
+        return cachedResponse;
+    }
+
+    private void onInvalidation(CacheInvalidationDTO invalidation) {
+
+        generation.incrementAndGet();
+
+        if (invalidation.isAll()) {
+            products.clear();
+        } else {
+            invalidation.getExternalIds().forEach(products::evict);
+        }
+
+        pages.clear();
+
+        log.debug("Responses invalidated: {} products and every page", invalidation.isAll() ? "all" : invalidation.getExternalIds().size());
+    }
+
+    private static String normalize(BigDecimal price) {
+        return price == null ? null : price.stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,23 @@
+package dev.deyve.productapi.configurations;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Batch Properties
+ */
+@Data
+@ConfigurationProperties(prefix = "product.batch")
+public class BatchProperties {
+
+    /**
+     * Rows written per transaction, also used as the Hibernate JDBC batch size.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Upper bound for the number of items in a single batch request.
+     */
+    private int maxItems = 10000;
+
+}
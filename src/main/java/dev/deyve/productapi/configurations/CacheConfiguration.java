@@ -0,0 +1,131 @@
+package dev.deyve.productapi.configurations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import dev.deyve.productapi.caches.CacheInvalidationBroadcaster;
+import dev.deyve.productapi.caches.CachedResponse;
+import dev.deyve.productapi.caches.ProductSnapshotManager;
+import dev.deyve.productapi.caches.ResponseCache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cache Configuration
+ * <p>
+ * Caches are backed by Caffeine and sized through spring.cache.caffeine.spec, except the response caches,
+ * sized through product.response-cache.*. With read replicas none keeps an entry longer than
+ * product.replicas.max-lag, since it may have been read from a replica that had not caught up.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    public static final String PRODUCTS_CACHE = "products";
+
+    public static final String PRODUCT_RESPONSES_CACHE = "product-responses";
+
+    public static final String PAGE_RESPONSES_CACHE = "page-responses";
+
+    private static final String EXPIRE_AFTER_WRITE = "expireAfterWrite";
+
+    /**
+     * Registered with the Spring cache manager, so they show in /caches/{name} and the cache metrics.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "product.response-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public CacheManagerCustomizer<CaffeineCacheManager> responseCachesCustomizer(ResponseCacheProperties responseCacheProperties,
+                                                                              ReplicaProperties replicaProperties) {
+
+        Duration expireAfterWrite = replicaProperties.boundCacheExpiry(responseCacheProperties.getExpireAfterWrite());
+
+        return cacheManager -> {
+
+            cacheManager.registerCustomCache(PRODUCT_RESPONSES_CACHE, Caffeine.newBuilder()
+                    .maximumSize(responseCacheProperties.getProductMaxSize())
+                    .expireAfterWrite(expireAfterWrite)
+                    .recordStats()
+                    .build());
+
+            cacheManager.registerCustomCache(PAGE_RESPONSES_CACHE, Caffeine.newBuilder()
+                    .maximumWeight(responseCacheProperties.getPageMaxSize().toBytes())
+                    .weigher((Object key, Object value) -> value instanceof CachedResponse ? ((CachedResponse) value).getWeight() : 1)
+                    .expireAfterWrite(expireAfterWrite)
+                    .recordStats()
+                    .build());
+        };
+    }
+
+    /**
+     * Bounds the expireAfterWrite of spring.cache.caffeine.spec, the products cache's, by the replica lag.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "product.replicas", name = "enabled", havingValue = "true")
+    public CacheManagerCustomizer<CaffeineCacheManager> replicaLagCachesCustomizer(CacheProperties cacheProperties,
+                                                                                ReplicaProperties replicaProperties) {
+
+        return cacheManager -> cacheManager.setCaffeineSpec(CaffeineSpec.parse(
+                boundExpireAfterWrite(cacheProperties.getCaffeine().getSpec(), replicaProperties)));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "product.response-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public ResponseCache responseCache(CacheManager cacheManager, ObjectMapper objectMapper, ResponseCacheProperties responseCacheProperties,
+                                       CacheInvalidationBroadcaster cacheInvalidationBroadcaster,
+                                       ObjectProvider<ProductSnapshotManager> productSnapshotManager) {
+        return new ResponseCache(cacheManager, objectMapper, responseCacheProperties, cacheInvalidationBroadcaster,
+                productSnapshotManager.getIfAvailable());
+    }
+
+    static String boundExpireAfterWrite(String spec, ReplicaProperties replicaProperties) {
+
+        List<String> options = new ArrayList<>();
+        Duration expireAfterWrite = null;
+
+        for (String option : spec == null ? new String[0] : spec.split(",")) {
+
+            String[] keyValue = option.trim().split("=", 2);
+
+            if (keyValue[0].equals(EXPIRE_AFTER_WRITE) && keyValue.length == 2) {
+                expireAfterWrite = specDuration(keyValue[1].trim());
+            } else if (!option.isBlank()) {
+                options.add(option.trim());
+            }
+        }
+
+        // the spec only takes whole seconds
+        long seconds = (long) Math.ceil(replicaProperties.boundCacheExpiry(expireAfterWrite).toMillis() / 1000.0);
+        options.add(EXPIRE_AFTER_WRITE + '=' + Math.max(1, seconds) + 's');
+
+        return String.join(",", options);
+    }
+
+    private static Duration specDuration(String value) {
+
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+
+        switch (value.charAt(value.length() - 1)) {
+            case 'd':
+                return Duration.ofDays(amount);
+            case 'h':
+                return Duration.ofHours(amount);
+            case 'm':
+                return Duration.ofMinutes(amount);
+            case 's':
+                return Duration.ofSeconds(amount);
+            default:
+                throw new IllegalArgumentException("Invalid duration in spring.cache.caffeine.spec: " + value);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package dev.deyve.productapi.configurations;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Change Feed Configuration
+ */
+@Configuration
+public class ChangeConfiguration {
+
+    /**
+     * Single thread answering the waiting change requests, so the checks never overlap.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler changeScheduler() {
+
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("product-changes-");
+
+        return scheduler;
+    }
+}
@@ -0,0 +1,40 @@
+package dev.deyve.productapi.configurations;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Change Feed Properties
+ */
+@Data
+@ConfigurationProperties(prefix = "product.changes")
+public class ChangeProperties {
+
+    /**
+     * Records the product writes in the product_change outbox; off when nothing consumes the feed.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Changes returned when the request does not send a limit.
+     */
+    private int defaultLimit = 100;
+
+    /**
+     * Upper bound for the changes a client can ask for.
+     */
+    private int maxLimit = 1000;
+
+    /**
+     * Longest a request may wait for a change before it gets an empty answer.
+     */
+    private Duration maxWait = Duration.ofSeconds(30);
+
+    /**
+     * How often waiting requests look for changes committed by other instances.
+     */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+}
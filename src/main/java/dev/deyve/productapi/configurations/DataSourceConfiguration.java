@@ -0,0 +1,132 @@
+package dev.deyve.productapi.configurations;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import dev.deyve.productapi.caches.CacheInvalidationBroadcaster;
+import dev.deyve.productapi.caches.ReplicaLagCacheInvalidationBroadcaster;
+import dev.deyve.productapi.controllers.ReadYourWritesInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Source Configuration
+ * <p>
+ * Only with product.replicas.enabled: replaces Spring Boot's data source with a read/write routing one over
+ * the primary pool, still bound to spring.datasource.*, and one pool per replica. Reads are routed by
+ * marking their transactions read-only.
+ */
+@Log4j2
+@Configuration
+@ConditionalOnProperty(prefix = "product.replicas", name = "enabled", havingValue = "true")
+public class DataSourceConfiguration {
+
+    /**
+     * The only DataSource bean: a second one would send Spring Boot's data source initializer into a cycle.
+     */
+    @Bean
+    public ReadWriteRoutingDataSource dataSource(DataSourceProperties dataSourceProperties, ReplicaProperties replicaProperties,
+                                                 Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+
+        for (ReplicaProperties.Node node : replicaProperties.getNodes()) {
+
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(node.getUrl())
+                    .username(node.getUsername() != null ? node.getUsername() : dataSourceProperties.determineUsername())
+                    .password(node.getPassword() != null ? node.getPassword() : dataSourceProperties.determinePassword())
+                    .build();
+
+            replica.setPoolName("replica-" + replicas.size());
+            if (primary.getMaximumPoolSize() > 0) {
+                replica.setMaximumPoolSize(primary.getMaximumPoolSize());
+            }
+            if (primary.getMinimumIdle() >= 0) {
+                replica.setMinimumIdle(primary.getMinimumIdle());
+            }
+            replica.setConnectionTimeout(primary.getConnectionTimeout());
+            replica.setMaxLifetime(primary.getMaxLifetime());
+            // the driver settings of spring.datasource.hikari.data-source-properties, prepared statements included
+            replica.setDataSourceProperties(primary.getDataSourceProperties());
+            replica.setReadOnly(true);
+            meterRegistry.ifAvailable(registry -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+
+            replicas.add(replica);
+        }
+
+        return new ReadWriteRoutingDataSource(primary, replicas, replicaProperties.getSelection());
+    }
+
+    /**
+     * Wraps the cache invalidation broadcaster, whichever it is, so that invalidations are repeated once the
+     * replicas have caught up; see {@link ReplicaLagCacheInvalidationBroadcaster}.
+     */
+    @Bean
+    public static BeanPostProcessor replicaLagCacheInvalidation(Environment environment) {
+
+        Duration maxLag = Binder.get(environment).bind("product.replicas.max-lag", Duration.class).orElse(new ReplicaProperties().getMaxLag());
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof CacheInvalidationBroadcaster && !(bean instanceof ReplicaLagCacheInvalidationBroadcaster)
+                        ? new ReplicaLagCacheInvalidationBroadcaster((CacheInvalidationBroadcaster) bean, maxLag)
+                        : bean;
+            }
+        };
+    }
+
+    @Bean
+    public WebMvcConfigurer readYourWritesConfigurer(ReplicaProperties replicaProperties) {
+
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                if (!replicaProperties.getReadYourWrites().isZero()) {
+                    registry.addInterceptor(new ReadYourWritesInterceptor(replicaProperties.getReadYourWrites(),
+                                    readYourWritesKey(replicaProperties), "/products/lookup"))
+                            .addPathPatterns("/products/**", "/products");
+                }
+            }
+        };
+    }
+
+    private static byte[] readYourWritesKey(ReplicaProperties replicaProperties) {
+
+        String key = replicaProperties.getReadYourWritesKey();
+
+        if (key != null && !key.isEmpty()) {
+            return key.getBytes(StandardCharsets.UTF_8);
+        }
+
+        log.warn("product.replicas.read-your-writes-key is not set, Read-Primary-Until is only honoured by the instance that issued it");
+
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+
+        return random;
+    }
+}
@@ -0,0 +1,30 @@
+package dev.deyve.productapi.configurations;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Execution Configuration
+ * <p>
+ * The request executor is only created in async mode. Any other Executor bean named productRequestExecutor
+ * can replace it, e.g. Executors.newVirtualThreadPerTaskExecutor() once the service runs on JDK 21.
+ */
+@Configuration
+public class ExecutionConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "product.execution", name = "mode", havingValue = "async")
+    public ThreadPoolTaskExecutor productRequestExecutor(ExecutionProperties executionProperties) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(executionProperties.getPoolSize());
+        executor.setMaxPoolSize(executionProperties.getPoolSize());
+        executor.setQueueCapacity(executionProperties.getQueueCapacity());
+        executor.setThreadNamePrefix("product-request-");
+        executor.setTaskDecorator(ReadRouting::propagate);
+
+        return executor;
+    }
+}
@@ -0,0 +1,32 @@
+package dev.deyve.productapi.configurations;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Execution Properties
+ */
+@Data
+@ConfigurationProperties(prefix = "product.execution")
+public class ExecutionProperties {
+
+    /**
+     * blocking runs product reads on the servlet container thread, async hands them to a bounded
+     * executor and releases the container thread while the database works.
+     */
+    private Mode mode = Mode.BLOCKING;
+
+    /**
+     * Threads of the async executor.
+     */
+    private int poolSize = 200;
+
+    /**
+     * Reads waiting for an async thread; beyond it requests are rejected with 503.
+     */
+    private int queueCapacity = 2000;
+
+    public enum Mode {
+        BLOCKING, ASYNC
+    }
+}
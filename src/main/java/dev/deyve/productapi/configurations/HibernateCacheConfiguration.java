@@ -0,0 +1,106 @@
+package dev.deyve.productapi.configurations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import dev.deyve.productapi.caches.CacheInvalidationBroadcaster;
+import dev.deyve.productapi.caches.LocalCacheInvalidationBroadcaster;
+import dev.deyve.productapi.caches.PostgresCacheInvalidationBroadcaster;
+import dev.deyve.productapi.caches.ProductCacheInvalidator;
+import dev.deyve.productapi.models.Product;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.cache.Caching;
+import javax.persistence.EntityManagerFactory;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate Cache Configuration
+ * <p>
+ * Hibernate's second-level and query caches on Caffeine's JCache provider. The regions are created here,
+ * sized from product.hibernate-cache.*, and Hibernate fails to start rather than create one it does not know.
+ * With read replicas their entries expire within product.replicas.max-lag.
+ */
+@Configuration
+public class HibernateCacheConfiguration {
+
+    /**
+     * A cache manager of its own per application context, so contexts sharing a JVM (tests) do not share regions.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "product.hibernate-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public javax.cache.CacheManager hibernateCacheManager(HibernateCacheProperties hibernateCacheProperties, ReplicaProperties replicaProperties) {
+
+        javax.cache.CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        cacheManager.createCache(Product.class.getName(),
+                region(hibernateCacheProperties.getEntityMaxSize(), replicaProperties.boundCacheExpiry(hibernateCacheProperties.getEntityExpireAfterWrite())));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                region(hibernateCacheProperties.getQueryMaxSize(), replicaProperties.boundCacheExpiry(hibernateCacheProperties.getQueryExpireAfterWrite())));
+        // must outlive every cached query result, so neither bounded nor expiring; one entry per table
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, region(null, null));
+
+        return cacheManager;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "product.hibernate-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(javax.cache.CacheManager hibernateCacheManager) {
+
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "product.hibernate-cache", name = "broadcast", havingValue = "postgres")
+    public PostgresCacheInvalidationBroadcaster postgresCacheInvalidationBroadcaster(DataSourceProperties dataSourceProperties,
+                                                                                     JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                                                                     HibernateCacheProperties hibernateCacheProperties) {
+        return new PostgresCacheInvalidationBroadcaster(dataSourceProperties, jdbcTemplate, objectMapper, hibernateCacheProperties.getChannel());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "product.hibernate-cache", name = "broadcast", havingValue = "local", matchIfMissing = true)
+    public LocalCacheInvalidationBroadcaster localCacheInvalidationBroadcaster() {
+        return new LocalCacheInvalidationBroadcaster();
+    }
+
+    @Bean
+    public ProductCacheInvalidator productCacheInvalidator(CacheInvalidationBroadcaster cacheInvalidationBroadcaster, CacheManager cacheManager,
+                                                           EntityManagerFactory entityManagerFactory, HibernateCacheProperties hibernateCacheProperties) {
+
+        return new ProductCacheInvalidator(cacheInvalidationBroadcaster, cacheManager,
+                hibernateCacheProperties.isEnabled() ? entityManagerFactory.unwrap(SessionFactoryImplementor.class) : null);
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(Long maximumSize, Duration expireAfterWrite) {
+
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        configuration.setMaximumSize(maximumSize == null ? OptionalLong.empty() : OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(expireAfterWrite == null ? OptionalLong.empty() : OptionalLong.of(expireAfterWrite.toNanos()));
+
+        return configuration;
+    }
+}
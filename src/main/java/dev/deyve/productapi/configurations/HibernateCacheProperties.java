@@ -0,0 +1,51 @@
+package dev.deyve.productapi.configurations;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Hibernate Cache Properties
+ */
+@Data
+@ConfigurationProperties(prefix = "product.hibernate-cache")
+public class HibernateCacheProperties {
+
+    /**
+     * Caches Product entities and the listing and search queries in Hibernate's second-level cache.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Products kept in the entity region. Cached queries only hold ids, so it should fit a few pages.
+     */
+    private long entityMaxSize = 10_000;
+
+    private Duration entityExpireAfterWrite = Duration.ofMinutes(10);
+
+    /**
+     * Query results kept, one per query and parameter set.
+     */
+    private long queryMaxSize = 1_000;
+
+    /**
+     * Bounds how long another instance can serve a stale result if an invalidation is lost.
+     */
+    private Duration queryExpireAfterWrite = Duration.ofMinutes(1);
+
+    /**
+     * How invalidations reach the other instances: local keeps them in this JVM, postgres sends them with
+     * NOTIFY on the primary database.
+     */
+    private Broadcast broadcast = Broadcast.LOCAL;
+
+    /**
+     * LISTEN/NOTIFY channel of the postgres broadcast.
+     */
+    private String channel = "product_cache";
+
+    public enum Broadcast {
+        LOCAL, POSTGRES
+    }
+}
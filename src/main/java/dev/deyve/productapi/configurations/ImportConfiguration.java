@@ -0,0 +1,43 @@
+package dev.deyve.productapi.configurations;
+
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Import Configuration
+ */
+@Configuration
+public class ImportConfiguration {
+
+    /**
+     * Runs the persistence side of the imports. No queue: an upload beyond the limit is rejected.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor importExecutor(ImportProperties importProperties) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(importProperties.getMaxConcurrentImports());
+        executor.setMaxPoolSize(importProperties.getMaxConcurrentImports());
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("product-import-");
+
+        return executor;
+    }
+
+    /**
+     * Spring Boot backs off its own executor as soon as any other Executor bean exists, importExecutor
+     * included, which would leave Spring MVC async requests (streams, exports) on an unbounded
+     * SimpleAsyncTaskExecutor. Declared here the same way Boot does, so it still honours spring.task.execution.*.
+     */
+    @Lazy
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
@@ -0,0 +1,28 @@
+package dev.deyve.productapi.configurations;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Import Properties
+ */
+@Data
+@ConfigurationProperties(prefix = "product.import")
+public class ImportProperties {
+
+    /**
+     * Parsed chunks that may wait for the database before the reader blocks.
+     */
+    private int queueCapacity = 4;
+
+    /**
+     * Imports that may run at the same time; further uploads are rejected with 503.
+     */
+    private int maxConcurrentImports = 2;
+
+    /**
+     * Row errors kept in the response; the failed counter keeps counting past it.
+     */
+    private int maxReportedErrors = 1000;
+
+}
@@ -0,0 +1,25 @@
+package dev.deyve.productapi.configurations;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Logging Properties
+ */
+@Data
+@ConfigurationProperties(prefix = "product.logging")
+public class LoggingProperties {
+
+    /**
+     * Share of requests, from 0 to 1, whose full payload is logged to the dev.deyve.productapi.payloads
+     * logger. Every request still logs its summary.
+     */
+    private double payloadSampleRate = 0;
+
+    /**
+     * Events the async appender buffers, read by logback-spring.xml. When it is full, events are dropped
+     * rather than blocking the request thread; INFO and below are dropped once it is 80% full.
+     */
+    private int queueSize = 8192;
+
+}
@@ -0,0 +1,38 @@
+package dev.deyve.productapi.configurations;
+
+import dev.deyve.productapi.metrics.RepositoryMetricsListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Metrics Configuration
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * Registers {@link RepositoryMetricsListener} on every repository factory. Static, and resolving the
+     * registry lazily, so the post processor does not pull the metrics beans in too early.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+
+                if (bean instanceof RepositoryFactoryBeanSupport) {
+                    ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                            factory.addInvocationListener(new RepositoryMetricsListener(meterRegistry.getObject())));
+                }
+
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package dev.deyve.productapi.configurations;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Pagination Properties
+ */
+@Data
+@ConfigurationProperties(prefix = "product.pagination")
+public class PaginationProperties {
+
+    /**
+     * Page size used when the request does not send a limit.
+     */
+    private int defaultLimit = 100;
+
+    /**
+     * Upper bound for the page size a client can ask for.
+     */
+    private int maxLimit = 1000;
+
+}
@@ -0,0 +1,54 @@
+package dev.deyve.productapi.configurations;
+
+import dev.deyve.productapi.controllers.RateLimitInterceptor;
+import dev.deyve.productapi.limiters.LoadShedder;
+import dev.deyve.productapi.limiters.RequestLimiter;
+import dev.deyve.productapi.metrics.ProductMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Rate Limit Configuration
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "product.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfiguration {
+
+    @Bean
+    public RequestLimiter requestLimiter(RateLimitProperties rateLimitProperties) {
+        return new RequestLimiter(rateLimitProperties);
+    }
+
+    /**
+     * Watches the queue of the request executor only in async mode; in blocking mode the servlet container
+     * queues the requests and the pool metrics are the signal.
+     */
+    @Bean
+    public LoadShedder loadShedder(RateLimitProperties rateLimitProperties, MeterRegistry meterRegistry,
+                                   @Nullable @Qualifier("productRequestExecutor") ThreadPoolTaskExecutor requestExecutor) {
+        return new LoadShedder(rateLimitProperties, meterRegistry, requestExecutor);
+    }
+
+    @Bean
+    public WebMvcConfigurer rateLimitConfigurer(RequestLimiter requestLimiter, LoadShedder loadShedder, ProductMetrics productMetrics,
+                                                RateLimitProperties rateLimitProperties) {
+
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new RateLimitInterceptor(requestLimiter, loadShedder, productMetrics,
+                                rateLimitProperties.getClientHeader(), rateLimitProperties.getClientKeys(),
+                                rateLimitProperties.isTrustClientHeader(), rateLimitProperties.getShedRetryAfter()))
+                        .addPathPatterns("/products/**", "/products")
+                        .order(Integer.MIN_VALUE);
+            }
+        };
+    }
+}
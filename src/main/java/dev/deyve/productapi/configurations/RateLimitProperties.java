@@ -0,0 +1,80 @@
+package dev.deyve.productapi.configurations;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Rate Limit Properties
+ */
+@Data
+@ConfigurationProperties(prefix = "product.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Limits the product endpoints per client and sheds expensive requests when the service is saturated.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Header that identifies the client. Nothing here authenticates it, so it is only believed when its value
+     * is one of client-keys, or for any value when trust-client-header says a gateway in front sets it;
+     * other requests are keyed by their remote address.
+     */
+    private String clientHeader = "X-API-Key";
+
+    /**
+     * Client header values issued to known clients, each given its own bucket.
+     */
+    private Set<String> clientKeys = new HashSet<>();
+
+    /**
+     * Believe any client header value: only when a gateway authenticates the clients and sets the header,
+     * overwriting whatever the client sent.
+     */
+    private boolean trustClientHeader = false;
+
+    /**
+     * Tokens a client can spend at once. A point lookup costs one, listings cost their @RequestWeight.
+     */
+    private int capacity = 200;
+
+    /**
+     * Tokens given back to each client per second.
+     */
+    private double refillPerSecond = 100;
+
+    /**
+     * Clients tracked at once; the least recently seen are forgotten first.
+     */
+    private int maxClients = 100_000;
+
+    /**
+     * A client unseen for this long starts again with a full bucket.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * Requests waiting for a database connection beyond which expensive requests are shed.
+     */
+    private int maxPendingConnections = 10;
+
+    /**
+     * Average wait for a database connection since the last sample, beyond which expensive requests are shed.
+     */
+    private Duration maxConnectionWait = Duration.ofMillis(250);
+
+    /**
+     * Requests queued for the async request executor beyond which expensive requests are shed.
+     */
+    private int maxQueuedRequests = 500;
+
+    /**
+     * Retry-After sent with a shed request.
+     */
+    private Duration shedRetryAfter = Duration.ofSeconds(1);
+
+}
@@ -0,0 +1,45 @@
+package dev.deyve.productapi.configurations;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+/**
+ * Reactive Configuration
+ * <p>
+ * Only with the reactive profile, where the product reads go through WebFlux and R2DBC. Runs on Netty
+ * rather than on the Tomcat that is also on the classpath, and keeps a JDBC pool for Flyway and the
+ * JPA services, which Spring Boot drops as soon as an R2DBC connection factory exists.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = REACTIVE)
+public class ReactiveConfiguration {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * With product.replicas.enabled the data source comes from {@link DataSourceConfiguration}.
+     */
+    @Configuration
+    @EnableConfigurationProperties(DataSourceProperties.class)
+    @ConditionalOnProperty(prefix = "product.replicas", name = "enabled", havingValue = "false", matchIfMissing = true)
+    static class JdbcConfiguration {
+
+        @Bean
+        @ConfigurationProperties(prefix = "spring.datasource.hikari")
+        public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+            return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+    }
+}
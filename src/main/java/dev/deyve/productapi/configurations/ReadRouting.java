@@ -0,0 +1,45 @@
+package dev.deyve.productapi.configurations;
+
+/**
+ * Read Routing
+ * <p>
+ * Per-thread flag forcing read-only transactions to the primary, set for clients that have just written.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+
+    public static void clear() {
+        PRIMARY_REQUIRED.remove();
+    }
+
+    /**
+     * Carries the flag of the submitting thread over to an executor thread.
+     */
+    public static Runnable propagate(Runnable runnable) {
+
+        if (!isPrimaryRequired()) {
+            return runnable;
+        }
+
+        return () -> {
+            requirePrimary();
+            try {
+                runnable.run();
+            } finally {
+                clear();
+            }
+        };
+    }
+}
@@ -0,0 +1,102 @@
+package dev.deyve.productapi.configurations;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read Write Routing Data Source
+ * <p>
+ * Read-only transactions go to a replica, anything else to the primary. The transaction is only known to be
+ * read-only once it has begun, so the connection is fetched lazily, on the first statement, and routed then.
+ * Owns the pools and closes them with the context.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private static final String PRIMARY = "primary";
+
+    private final HikariDataSource primary;
+
+    private final List<HikariDataSource> replicas;
+
+    private final ReplicaProperties.Selection selection;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, ReplicaProperties.Selection selection) {
+
+        this.primary = primary;
+        this.replicas = replicas;
+        this.selection = selection;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+
+        AbstractRoutingDataSource router = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return route();
+            }
+        };
+        router.setTargetDataSources(targets);
+        router.setDefaultTargetDataSource(primary);
+        router.afterPropertiesSet();
+
+        setTargetDataSource(router);
+    }
+
+    private Object route() {
+
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadRouting.isPrimaryRequired()) {
+            return PRIMARY;
+        }
+
+        return selection == ReplicaProperties.Selection.LEAST_LOADED ? leastLoaded() : roundRobin();
+    }
+
+    private int roundRobin() {
+        return Math.floorMod(next.getAndIncrement(), replicas.size());
+    }
+
+    /**
+     * Fewest connections in use or awaited; ties are broken round robin, so idle replicas share the load.
+     */
+    private int leastLoaded() {
+
+        int start = roundRobin();
+        int selected = start;
+        int lowest = Integer.MAX_VALUE;
+
+        for (int i = 0; i < replicas.size(); i++) {
+
+            int index = (start + i) % replicas.size();
+            HikariPoolMXBean pool = replicas.get(index).getHikariPoolMXBean();
+            int load = pool == null ? 0 : pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+
+            if (load < lowest) {
+                lowest = load;
+                selected = index;
+            }
+        }
+
+        return selected;
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+        primary.close();
+    }
+}
@@ -0,0 +1,70 @@
+package dev.deyve.productapi.configurations;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replica Properties
+ */
+@Data
+@ConfigurationProperties(prefix = "product.replicas")
+public class ReplicaProperties {
+
+    /**
+     * Sends read-only transactions to the replicas; everything else stays on spring.datasource.
+     */
+    private boolean enabled = false;
+
+    private List<Node> nodes = new ArrayList<>();
+
+    private Selection selection = Selection.ROUND_ROBIN;
+
+    /**
+     * How long a client that wrote reads from the primary, covering the replication lag; 0 turns it off.
+     */
+    private Duration readYourWrites = Duration.ofSeconds(5);
+
+    /**
+     * Longest replication lag allowed for. What the caches read from a replica is kept no longer than this,
+     * and every invalidation is repeated this long after it came in. Keep read-your-writes at least as long.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * Key the Read-Primary-Until values are signed with. Must be the same on every instance behind the load
+     * balancer; when empty each instance draws a random one, which only suits a single instance.
+     */
+    private String readYourWritesKey;
+
+    /**
+     * How long a cache may keep an entry: expireAfterWrite, bounded by max-lag when the replicas are on.
+     */
+    public Duration boundCacheExpiry(Duration expireAfterWrite) {
+        return enabled && (expireAfterWrite == null || expireAfterWrite.compareTo(maxLag) > 0) ? maxLag : expireAfterWrite;
+    }
+
+    @Data
+    public static class Node {
+
+        private String url;
+
+        /**
+         * Defaults to spring.datasource.username.
+         */
+        private String username;
+
+        /**
+         * Defaults to spring.datasource.password.
+         */
+        private String password;
+
+    }
+
+    public enum Selection {
+        ROUND_ROBIN, LEAST_LOADED
+    }
+}
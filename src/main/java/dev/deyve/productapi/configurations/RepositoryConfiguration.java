@@ -0,0 +1,21 @@
+package dev.deyve.productapi.configurations;
+
+import dev.deyve.productapi.repositories.ProductRepository;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+/**
+ * Repository Configuration
+ * <p>
+ * Product is a JPA entity, so JPA would also claim the R2DBC repositories of the reactive profile;
+ * they are left to R2DBC, which is only enabled by application-reactive.yml.
+ */
+@Configuration
+@EnableJpaRepositories(basePackageClasses = ProductRepository.class,
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ReactiveCrudRepository.class))
+public class RepositoryConfiguration {
+
+}
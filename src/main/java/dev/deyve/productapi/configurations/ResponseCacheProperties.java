@@ -0,0 +1,41 @@
+package dev.deyve.productapi.configurations;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Response Cache Properties
+ */
+@Data
+@ConfigurationProperties(prefix = "product.response-cache")
+public class ResponseCacheProperties {
+
+    /**
+     * Keeps the encoded JSON of product, page and search responses, written as is on a hit.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Single-product responses kept.
+     */
+    private long productMaxSize = 10_000;
+
+    /**
+     * Bytes of page and search responses kept, gzip variants included.
+     */
+    private DataSize pageMaxSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Bounds how long a response read from a lagging replica, or a lost invalidation, can be served.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+    /**
+     * Responses from this size on also keep a gzip variant, sent to clients accepting it; negative to never compress.
+     */
+    private DataSize gzipMinSize = DataSize.ofKilobytes(1);
+
+}
@@ -0,0 +1,67 @@
+package dev.deyve.productapi.configurations;
+
+import dev.deyve.productapi.caches.CacheInvalidationBroadcaster;
+import dev.deyve.productapi.caches.ProductSnapshotManager;
+import dev.deyve.productapi.repositories.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static dev.deyve.productapi.configurations.CacheConfiguration.PRODUCTS_CACHE;
+
+/**
+ * Snapshot Configuration
+ * <p>
+ * Only with product.snapshot.enabled: reads served from an in-memory catalog snapshot.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "product.snapshot", name = "enabled", havingValue = "true")
+public class SnapshotConfiguration {
+
+    /**
+     * Single thread refreshing the snapshot, so refreshes never overlap or apply out of order.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler snapshotScheduler() {
+
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("product-snapshot-");
+
+        return scheduler;
+    }
+
+    /**
+     * A product read from the snapshot between a write and the refresh that brings it in would otherwise stay
+     * in the products cache, evicted by the write already.
+     */
+    @Bean
+    public ProductSnapshotManager productSnapshotManager(ProductRepository productRepository, TransactionTemplate transactionTemplate,
+                                                         ThreadPoolTaskScheduler snapshotScheduler, SnapshotProperties snapshotProperties,
+                                                         CacheInvalidationBroadcaster cacheInvalidationBroadcaster, CacheManager cacheManager,
+                                                         ObjectProvider<MeterRegistry> meterRegistry) {
+
+        ProductSnapshotManager productSnapshotManager = new ProductSnapshotManager(productRepository, transactionTemplate, snapshotScheduler,
+                snapshotProperties, cacheInvalidationBroadcaster, meterRegistry.getIfAvailable());
+
+        productSnapshotManager.subscribe(invalidation -> {
+            Cache cache = cacheManager.getCache(PRODUCTS_CACHE);
+            if (cache == null) {
+                return;
+            }
+            if (invalidation.isAll()) {
+                cache.clear();
+            } else {
+                invalidation.getExternalIds().forEach(cache::evict);
+            }
+        });
+
+        return productSnapshotManager;
+    }
+}
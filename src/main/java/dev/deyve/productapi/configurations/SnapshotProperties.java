@@ -0,0 +1,38 @@
+package dev.deyve.productapi.configurations;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Snapshot Properties
+ */
+@Data
+@ConfigurationProperties(prefix = "product.snapshot")
+public class SnapshotProperties {
+
+    /**
+     * Serves product pages, lookups by id and searches from an in-memory copy of the catalog, for
+     * deployments that read far more than they write. Reads may lag a write by up to refresh-interval.
+     */
+    private boolean enabled = false;
+
+    /**
+     * How often products updated since the last refresh are read; writes seen by the cache invalidations
+     * are read right away.
+     */
+    private Duration refreshInterval = Duration.ofSeconds(5);
+
+    /**
+     * How far before the latest update time an incremental refresh starts reading, to catch transactions
+     * that committed after a later one, or on an instance whose clock is behind.
+     */
+    private Duration overlap = Duration.ofMinutes(1);
+
+    /**
+     * How often the snapshot is rebuilt from the whole table, dropping deletes no invalidation carried.
+     */
+    private Duration rebuildInterval = Duration.ofHours(1);
+
+}
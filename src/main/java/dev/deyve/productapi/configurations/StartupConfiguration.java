@@ -0,0 +1,93 @@
+package dev.deyve.productapi.configurations;
+
+import dev.deyve.productapi.caches.PostgresCacheInvalidationBroadcaster;
+import dev.deyve.productapi.caches.ProductSnapshotManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.log4j.Log4j2;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.StartupStep;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Startup Configuration
+ * <p>
+ * Reports how long the instance took to be ready, so startup regressions show in the log and in
+ * product.startup.time, and keeps the infrastructure eager when spring.main.lazy-initialization is on.
+ */
+@Log4j2
+@Configuration
+public class StartupConfiguration {
+
+    private static final int SLOWEST_STEPS = 10;
+
+    private static final String BEAN_INSTANTIATION = "spring.beans.instantiate";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private volatile long readyMillis;
+
+    public StartupConfiguration(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Lazy beans only move their cost to the first request; these would also fail there instead of at startup,
+     * or miss work meanwhile: migrations, schema validation, pools, the cache invalidation listener and, when
+     * product.snapshot.enabled, the first snapshot build, without which every read goes to the database.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerInfrastructure() {
+        return LazyInitializationExcludeFilter.forBeanTypes(Flyway.class, FlywayMigrationInitializer.class, DataSource.class,
+                EntityManagerFactory.class, PostgresCacheInvalidationBroadcaster.class, ProductSnapshotManager.class);
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+
+        readyMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+
+        log.info("Ready in {} ms since JVM start", readyMillis);
+
+        meterRegistry.ifAvailable(registry -> TimeGauge.builder("product.startup.time", this, TimeUnit.MILLISECONDS, configuration -> configuration.readyMillis)
+                .description("Time from JVM start until the application was ready")
+                .register(registry));
+
+        if (event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup) {
+
+            StartupTimeline timeline = ((BufferingApplicationStartup) event.getApplicationContext().getApplicationStartup()).getBufferedTimeline();
+
+            log.info("Slowest bean instantiations, children included: {}", timeline.getEvents().stream()
+                    .filter(step -> BEAN_INSTANTIATION.equals(step.getStartupStep().getName()))
+                    .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                    .limit(SLOWEST_STEPS)
+                    .map(step -> beanName(step.getStartupStep()) + " " + step.getDuration().toMillis() + " ms")
+                    .collect(Collectors.joining(", ")));
+        }
+    }
+
+    private static String beanName(StartupStep step) {
+
+        return StreamSupport.stream(step.getTags().spliterator(), false)
+                .filter(tag -> "beanName".equals(tag.getKey()))
+                .map(StartupStep.Tag::getValue)
+                .findFirst()
+                .orElse("?");
+    }
+}
@@ -0,0 +1,143 @@
+package dev.deyve.productapi.controllers;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dev.deyve.productapi.caches.ProductSnapshot;
+import dev.deyve.productapi.caches.ProductSnapshotManager;
+import dev.deyve.productapi.dtos.CacheStatsDTO;
+import dev.deyve.productapi.dtos.SnapshotStatsDTO;
+import dev.deyve.productapi.exceptions.MessageError;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Cache Controller
+ * <p>
+ * Statistics of the Spring caches and of the Hibernate second-level cache regions, e.g.
+ * dev.deyve.productapi.models.Product and default-query-results-region, and of the catalog snapshot.
+ */
+@RestController
+@RequestMapping("/caches")
+public class CacheController {
+
+    private final CacheManager cacheManager;
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    private final javax.cache.CacheManager hibernateCacheManager;
+
+    private final ProductSnapshotManager productSnapshotManager;
+
+    public CacheController(CacheManager cacheManager, EntityManagerFactory entityManagerFactory,
+                           @Nullable javax.cache.CacheManager hibernateCacheManager, @Nullable ProductSnapshotManager productSnapshotManager) {
+        this.cacheManager = cacheManager;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.hibernateCacheManager = hibernateCacheManager;
+        this.productSnapshotManager = productSnapshotManager;
+    }
+
+    /**
+     * Get Snapshot Stats
+     *
+     * @return SnapshotStatsDTO
+     */
+    @GetMapping("/snapshot")
+    @Operation(summary = "Get catalog snapshot statistics")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Snapshot statistics",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = SnapshotStatsDTO.class))}),
+            @ApiResponse(responseCode = "404", description = "Snapshot disabled or not built yet", content = {@Content(mediaType = "application/json",
+                    schema = @Schema(implementation = MessageError.class))})})
+    public ResponseEntity<SnapshotStatsDTO> getSnapshotStats() {
+
+        ProductSnapshot snapshot = productSnapshotManager == null ? null : productSnapshotManager.current();
+
+        if (snapshot == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(SnapshotStatsDTO.builder()
+                .products(snapshot.size())
+                .words(snapshot.tokenCount())
+                .estimatedBytes(snapshot.getEstimatedBytes())
+                .bytesPerProduct(snapshot.size() == 0 ? 0 : snapshot.getEstimatedBytes() / snapshot.size())
+                .ageMillis(productSnapshotManager.getAgeMillis())
+                .build());
+    }
+
+    /**
+     * Get Cache Stats
+     *
+     * @param name String
+     * @return CacheStatsDTO
+     */
+    @GetMapping("/{name}")
+    @Operation(summary = "Get cache statistics")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cache statistics",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = CacheStatsDTO.class))}),
+            @ApiResponse(responseCode = "404", description = "Cache not found", content = {@Content(mediaType = "application/json",
+                    schema = @Schema(implementation = MessageError.class))})})
+    public ResponseEntity<CacheStatsDTO> getCacheStats(@PathVariable String name) {
+
+        Cache cache = cacheManager.getCache(name);
+
+        if (!(cache instanceof CaffeineCache)) {
+            return getRegionStats(name);
+        }
+
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = ((CaffeineCache) cache).getNativeCache();
+        CacheStats stats = nativeCache.stats();
+
+        return ResponseEntity.ok(CacheStatsDTO.builder()
+                .name(name)
+                .size(nativeCache.estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .build());
+    }
+
+    private ResponseEntity<CacheStatsDTO> getRegionStats(String name) {
+
+        Statistics statistics = sessionFactory.getStatistics();
+
+        if (hibernateCacheManager == null || !statistics.isStatisticsEnabled() || !sessionFactory.getCache().getCacheRegionNames().contains(name)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        CacheRegionStatistics stats = statistics.getCacheRegionStatistics(name);
+        long requests = stats.getHitCount() + stats.getMissCount();
+
+        // JCache does not tell the region size, the Caffeine cache behind it does
+        com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache = hibernateCacheManager.getCache(name)
+                .unwrap(com.github.benmanes.caffeine.cache.Cache.class);
+
+        return ResponseEntity.ok(CacheStatsDTO.builder()
+                .name(name)
+                .size(nativeCache.estimatedSize())
+                .hitCount(stats.getHitCount())
+                .missCount(stats.getMissCount())
+                .hitRate(requests == 0 ? 1.0 : (double) stats.getHitCount() / requests)
+                .build());
+    }
+}
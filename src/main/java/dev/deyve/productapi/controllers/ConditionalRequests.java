@@ -0,0 +1,121 @@
+package dev.deyve.productapi.controllers;
+
+import dev.deyve.productapi.caches.CachedResponse;
+import dev.deyve.productapi.models.Product;
+import dev.deyve.productapi.repositories.ProductsSummary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
+
+/**
+ * Conditional Requests
+ * <p>
+ * ETag and Last-Modified validators for product responses, and the If-None-Match / If-Modified-Since
+ * evaluation for GET (RFC 7232): If-None-Match wins when both are sent. Writes are conditioned with If-Match.
+ */
+final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * The version itself, so an If-Match can be turned back into the expected version.
+     */
+    static String eTag(Product product) {
+        return "\"" + product.getVersion() + '"';
+    }
+
+    static String eTag(ProductsSummary summary) {
+        return eTag(summary.getCount(), summary.getLastUpdatedAt(), summary.getLastId());
+    }
+
+    static Instant lastModified(LocalDateTime updatedAt) {
+        return updatedAt == null ? null : updatedAt.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    /**
+     * @param lastModified null to ignore If-Modified-Since, e.g. for lists where a delete does not move the date
+     */
+    static boolean isNotModified(HttpHeaders requestHeaders, String eTag, Instant lastModified) {
+
+        List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+
+        if (!ifNoneMatch.isEmpty()) {
+            return ifNoneMatch.stream().anyMatch(tag -> tag.equals("*") || opaque(tag).equals(opaque(eTag)));
+        }
+
+        if (lastModified == null) {
+            return false;
+        }
+
+        try {
+            long ifModifiedSince = requestHeaders.getIfModifiedSince();
+            return ifModifiedSince >= 0 && lastModified.getEpochSecond() * 1000 <= ifModifiedSince;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Expected version of an If-Match (strong comparison), null when absent or "*".
+     * A tag that is not a version, weak ones included, yields -1 and never matches.
+     */
+    static Long expectedVersion(HttpHeaders requestHeaders) {
+
+        List<String> ifMatch = requestHeaders.getIfMatch();
+
+        if (ifMatch.isEmpty() || ifMatch.contains("*")) {
+            return null;
+        }
+
+        String tag = ifMatch.get(0);
+
+        try {
+            return tag.startsWith("\"") ? Long.parseLong(tag.substring(1, tag.length() - 1)) : -1L;
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    static <T> ResponseEntity<T> notModified(String eTag, Instant lastModified) {
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(NOT_MODIFIED).eTag(eTag);
+
+        if (lastModified != null) {
+            response.lastModified(lastModified);
+        }
+
+        return response.build();
+    }
+
+    private static String eTag(Object... parts) {
+
+        String value = Arrays.stream(parts)
+                .map(String::valueOf)
+                .collect(Collectors.joining(":"));
+
+        return '"' + DigestUtils.md5DigestAsHex(value.getBytes(UTF_8)) + '"';
+    }
+
+    /**
+     * If-None-Match uses the weak comparison, so a W/ prefix is ignored, and so is the suffix of a gzip
+     * variant's tag: it names the same version.
+     */
+    private static String opaque(String tag) {
+
+        String opaque = tag.startsWith("W/") ? tag.substring(2) : tag;
+        String gzipEnd = CachedResponse.GZIP_ETAG_SUFFIX + '"';
+
+        return opaque.endsWith(gzipEnd) ? opaque.substring(0, opaque.length() - gzipEnd.length()) + '"' : opaque;
+    }
+}
@@ -0,0 +1,218 @@
+package dev.deyve.productapi.controllers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import dev.deyve.productapi.configurations.BatchProperties;
+import dev.deyve.productapi.dtos.BatchResultDTO;
+import dev.deyve.productapi.dtos.ProductDTO;
+import dev.deyve.productapi.services.ProductBatchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Product Batch Controller
+ * <p>
+ * Takes a JSON array, or with Content-Type application/x-ndjson one item per line, read as it arrives so an
+ * oversized batch is rejected before the rest of it is parsed.
+ */
+@Log4j2
+@RestController
+@ConditionalOnWebApplication(type = SERVLET)
+@RequestMapping("/products/batch")
+public class ProductBatchController {
+
+    private final ProductBatchService productBatchService;
+
+    private final BatchProperties batchProperties;
+
+    private final ObjectReader productReader;
+
+    private final ObjectReader idReader;
+
+    public ProductBatchController(ProductBatchService productBatchService, BatchProperties batchProperties, ObjectMapper objectMapper) {
+        this.productBatchService = productBatchService;
+        this.batchProperties = batchProperties;
+        this.productReader = objectMapper.readerFor(ProductDTO.class);
+        this.idReader = objectMapper.readerFor(UUID.class);
+    }
+
+    /**
+     * Post Products
+     *
+     * @param productDTOs List<ProductDTO>
+     * @return BatchResultDTO
+     */
+    @PostMapping
+    @RequestWeight(20)
+    @Operation(summary = "Save products in batch")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Per item results",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BatchResultDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content)})
+    public ResponseEntity<BatchResultDTO> postProducts(@RequestBody List<ProductDTO> productDTOs) {
+
+        checkSize(productDTOs.size());
+
+        BatchResultDTO batchResult = productBatchService.saveProducts(productDTOs);
+
+        log.info("Batch save: {} succeeded, {} failed", batchResult.getSucceeded(), batchResult.getFailed());
+
+        return ResponseEntity.ok(batchResult);
+    }
+
+    /**
+     * Post Products as NDJSON
+     *
+     * @param inputStream one ProductDTO per line
+     * @return BatchResultDTO
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @RequestWeight(20)
+    @Operation(summary = "Save products in batch from NDJSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Per item results",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BatchResultDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content)})
+    public ResponseEntity<BatchResultDTO> postProductsNdjson(InputStream inputStream) throws IOException {
+        return postProducts(readNdjson(productReader, inputStream));
+    }
+
+    /**
+     * Put Products
+     *
+     * @param productDTOs List<ProductDTO>
+     * @return BatchResultDTO
+     */
+    @PutMapping
+    @RequestWeight(20)
+    @Operation(summary = "Update products in batch")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Per item results",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BatchResultDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content)})
+    public ResponseEntity<BatchResultDTO> putProducts(@RequestBody List<ProductDTO> productDTOs) {
+
+        checkSize(productDTOs.size());
+
+        BatchResultDTO batchResult = productBatchService.updateProducts(productDTOs);
+
+        log.info("Batch update: {} succeeded, {} failed", batchResult.getSucceeded(), batchResult.getFailed());
+
+        return ResponseEntity.ok(batchResult);
+    }
+
+    /**
+     * Put Products as NDJSON
+     *
+     * @param inputStream one ProductDTO per line, each one identified by its id
+     * @return BatchResultDTO
+     */
+    @PutMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @RequestWeight(20)
+    @Operation(summary = "Update products in batch from NDJSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Per item results",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BatchResultDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content)})
+    public ResponseEntity<BatchResultDTO> putProductsNdjson(InputStream inputStream) throws IOException {
+        return putProducts(readNdjson(productReader, inputStream));
+    }
+
+    /**
+     * Delete Products
+     *
+     * @param ids List<UUID>
+     * @return BatchResultDTO
+     */
+    @DeleteMapping
+    @RequestWeight(20)
+    @Operation(summary = "Delete products in batch")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Per item results",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BatchResultDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content)})
+    public ResponseEntity<BatchResultDTO> deleteProducts(@RequestBody List<UUID> ids) {
+
+        checkSize(ids.size());
+
+        BatchResultDTO batchResult = productBatchService.deleteProducts(ids);
+
+        log.info("Batch delete: {} succeeded, {} failed", batchResult.getSucceeded(), batchResult.getFailed());
+
+        return ResponseEntity.ok(batchResult);
+    }
+
+    /**
+     * Delete Products as NDJSON
+     *
+     * @param inputStream one quoted UUID per line
+     * @return BatchResultDTO
+     */
+    @DeleteMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @RequestWeight(20)
+    @Operation(summary = "Delete products in batch from NDJSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Per item results",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BatchResultDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content)})
+    public ResponseEntity<BatchResultDTO> deleteProductsNdjson(InputStream inputStream) throws IOException {
+        return deleteProducts(readNdjson(idReader, inputStream));
+    }
+
+    /**
+     * Reads the values one by one, failing on the first malformed line or once the batch outgrows the limit.
+     */
+    private <T> List<T> readNdjson(ObjectReader reader, InputStream inputStream) throws IOException {
+
+        List<T> values = new ArrayList<>();
+
+        try (MappingIterator<T> iterator = reader.readValues(inputStream)) {
+            while (iterator.hasNextValue()) {
+                if (values.size() == batchProperties.getMaxItems()) {
+                    throw new ResponseStatusException(BAD_REQUEST,
+                            String.format("Batch has more than %d items, the limit", batchProperties.getMaxItems()));
+                }
+                values.add(iterator.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(BAD_REQUEST,
+                    String.format("Item %d is malformed: %s", values.size(), e.getOriginalMessage()));
+        }
+
+        return values;
+    }
+
+    private void checkSize(int size) {
+
+        if (size > batchProperties.getMaxItems()) {
+            throw new ResponseStatusException(BAD_REQUEST,
+                    String.format("Batch has %d items, the limit is %d", size, batchProperties.getMaxItems()));
+        }
+    }
+}
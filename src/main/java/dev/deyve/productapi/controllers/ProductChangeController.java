@@ -0,0 +1,60 @@
+package dev.deyve.productapi.controllers;
+
+import dev.deyve.productapi.dtos.ProductChangeDTO;
+import dev.deyve.productapi.services.ProductChangeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+
+/**
+ * Product Change Controller
+ */
+@RestController
+@ConditionalOnWebApplication(type = SERVLET)
+@RequestMapping("/products/changes")
+public class ProductChangeController {
+
+    private final ProductChangeService productChangeService;
+
+    public ProductChangeController(ProductChangeService productChangeService) {
+        this.productChangeService = productChangeService;
+    }
+
+    /**
+     * Get Changes
+     * <p>
+     * Long polling: when there is nothing after since, the request is held until a change is committed or
+     * the wait is over, and then answered with an empty list.
+     *
+     * @param since long cursor, the next header of the previous response; 0 reads the log from the start
+     * @param limit Integer changes per response
+     * @param wait  Integer seconds to wait for a change, 0 to answer right away
+     * @return List<ProductChangeDTO>
+     */
+    @GetMapping
+    @Operation(summary = "Find product changes after a cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Changes in commit order, next header holds the cursor",
+                    content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = ProductChangeDTO.class)))),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content)})
+    public DeferredResult<ResponseEntity<List<ProductChangeDTO>>> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                                             @RequestParam(required = false) Integer limit,
+                                                                             @RequestParam(required = false) Integer wait) {
+
+        return productChangeService.findChanges(since, limit, wait);
+    }
+}
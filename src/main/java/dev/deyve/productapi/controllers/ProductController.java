@@ -1,9 +1,19 @@
 package dev.deyve.productapi.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.deyve.productapi.caches.CachedResponse;
+import dev.deyve.productapi.caches.ResponseCache;
+import dev.deyve.productapi.dtos.PriceFacetsDTO;
 import dev.deyve.productapi.dtos.ProductDTO;
 import dev.deyve.productapi.exceptions.MessageError;
 import dev.deyve.productapi.exceptions.ProductNotFoundException;
+import dev.deyve.productapi.loggers.PayloadLogger;
+import dev.deyve.productapi.metrics.ProductMetrics;
 import dev.deyve.productapi.models.Product;
+import dev.deyve.productapi.repositories.ProductsSummary;
+import dev.deyve.productapi.serializers.ProductJsonWriter;
+import dev.deyve.productapi.services.ProductList;
 import dev.deyve.productapi.services.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -12,53 +22,160 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static dev.deyve.productapi.parsers.ProductParser.toProductDTO;
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
 import static org.springframework.http.HttpStatus.NO_CONTENT;
 
 /**
  * Product Controller
+ * <p>
+ * With the {@link ResponseCache}, product, page and search responses are encoded once and their bytes
+ * written as is until a write invalidates them.
  */
 @Log4j2
 @RestController
+@ConditionalOnWebApplication(type = SERVLET)
 @RequestMapping("/products")
 public class ProductController {
 
     private final ProductService productService;
 
-    public ProductController(ProductService productService) {
+    private final ObjectMapper objectMapper;
+
+    private final ProductMetrics productMetrics;
+
+    private final RequestExecutor requestExecutor;
+
+    private final PayloadLogger payloadLogger;
+
+    private final ResponseCache responseCache;
+
+    public ProductController(ProductService productService, ObjectMapper objectMapper, ProductMetrics productMetrics,
+                             RequestExecutor requestExecutor, PayloadLogger payloadLogger, @Nullable ResponseCache responseCache) {
         this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.productMetrics = productMetrics;
+        this.requestExecutor = requestExecutor;
+        this.payloadLogger = payloadLogger;
+        this.responseCache = responseCache;
     }
 
     /**
      * Get Products
      *
+     * @param after UUID cursor, the last id of the previous page
+     * @param limit Integer page size
      * @return List<Product>
      */
     @GetMapping
+    @RequestWeight(10)
     @Operation(summary = "Find products")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Products found",
                     content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = ProductDTO.class)))),
             @ApiResponse(responseCode = "400", description = "Bad request", content = @Content),
             @ApiResponse(responseCode = "404", description = "Products not found", content = @Content)})
-    public ResponseEntity<List<ProductDTO>> getProducts() {
+    public CompletableFuture<ResponseEntity<?>> getProducts(@RequestParam(required = false) UUID after,
+                                                            @RequestParam(required = false) Integer limit,
+                                                            @RequestHeader HttpHeaders headers) {
+
+        return requestExecutor.execute(() -> {
+
+            long started = System.nanoTime();
+
+            String key = ResponseCache.pageKey(after, limit);
+            CachedResponse cached = responseCache == null ? null : responseCache.getPage(key);
+
+            if (cached != null) {
+                productMetrics.recordListSize(cached.getCount());
+                log.info("getProducts after={} limit={} count={} cached=true millis={}", after, limit, cached.getCount(), millisSince(started));
+                return respond(cached, headers, false);
+            }
+
+            long generation = responseCache == null ? 0 : responseCache.generation();
 
-        List<ProductDTO> productDTOList = productService.findProducts();
+            if (!headers.getIfNoneMatch().isEmpty()) {
+                ProductsSummary summary = productService.summarizeProducts(after, limit);
+                String eTag = ConditionalRequests.eTag(summary);
+                if (ConditionalRequests.isNotModified(headers, eTag, null)) {
+                    return ConditionalRequests.notModified(eTag, ConditionalRequests.lastModified(summary.getLastUpdatedAt()));
+                }
+            }
 
-        log.info("Product DTO List: {} ", productDTOList);
+            ProductList productList = productService.findProducts(after, limit);
+            List<ProductDTO> productDTOList = productList.getProducts();
+
+            productMetrics.recordListSize(productDTOList.size());
+
+            ResponseEntity.BodyBuilder response = ok(productList.getSummary());
+
+            // a short page is the last one, no need to send the client after an empty one
+            UUID next = productDTOList.size() < productService.pageSize(limit) ? null : productDTOList.get(productDTOList.size() - 1).getId();
+
+            if (next != null) {
+                response.header("next", next.toString());
+            }
+
+            log.info("getProducts after={} limit={} count={} next={} millis={}", after, limit, productDTOList.size(), next, millisSince(started));
+            payloadLogger.log("getProducts", productDTOList);
+
+            if (responseCache != null) {
+                return respond(responseCache.putPage(key, generation, response.body(productDTOList), productDTOList.size()), headers, false);
+            }
+
+            return response.body(productDTOList);
+        });
+    }
+
+    /**
+     * Stream Products
+     *
+     * @return JSON array written row by row from a database cursor
+     */
+    @GetMapping("/stream")
+    @RequestWeight(100)
+    @Operation(summary = "Stream all products")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products streamed",
+                    content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = ProductDTO.class))))})
+    public ResponseEntity<StreamingResponseBody> streamProducts() {
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                productService.streamProducts(product -> {
+                    try {
+                        ProductJsonWriter.write(generator, product);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
 
         return ResponseEntity.ok()
-                .header("count", String.format("%d", productDTOList.size()))
-                .body(productDTOList);
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
     @PostMapping
@@ -73,7 +190,8 @@ public class ProductController {
 
         ProductDTO productDTOSaved = productService.saveProduct(productDTO);
 
-        log.info("ProductDTO: {} ", productDTOSaved);
+        log.info("postProduct id={}", productDTOSaved.getId());
+        payloadLogger.log("postProduct", productDTOSaved);
 
         return ResponseEntity.status(HttpStatus.CREATED).body(productDTOSaved);
     }
@@ -93,15 +211,46 @@ public class ProductController {
             @ApiResponse(responseCode = "400", description = "Invalid id supplied", content = @Content),
             @ApiResponse(responseCode = "404", description = "Product not found", content = {@Content(mediaType = "application/json",
                     schema = @Schema(implementation = MessageError.class))})})
-    public ResponseEntity<ProductDTO> getProduct(@PathVariable UUID id) {
+    public CompletableFuture<ResponseEntity<?>> getProduct(@PathVariable UUID id, @RequestHeader HttpHeaders headers) {
 
-        Product product = productService.findByExternalId(id);
+        return requestExecutor.execute(() -> {
 
-        log.info("Product: {} ", product);
+            long started = System.nanoTime();
 
-        if (product == null) throw new ProductNotFoundException("Product Not Found");
+            CachedResponse cached = responseCache == null ? null : responseCache.getProduct(id);
+
+            if (cached != null) {
+                log.info("getProduct id={} found=true cached=true millis={}", id, millisSince(started));
+                return respond(cached, headers, true);
+            }
+
+            long generation = responseCache == null ? 0 : responseCache.generation();
+
+            Product product = productService.findByExternalId(id);
+
+            log.info("getProduct id={} found={} millis={}", id, product != null, millisSince(started));
+
+            if (product == null) throw new ProductNotFoundException("Product Not Found");
+
+            String eTag = ConditionalRequests.eTag(product);
+            Instant lastModified = ConditionalRequests.lastModified(product.getUpdatedAt());
 
-        return new ResponseEntity<>(toProductDTO(product), HttpStatus.OK);
+            if (ConditionalRequests.isNotModified(headers, eTag, lastModified)) {
+                return ConditionalRequests.notModified(eTag, lastModified);
+            }
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag);
+
+            if (lastModified != null) {
+                response.lastModified(lastModified);
+            }
+
+            if (responseCache != null) {
+                return responseCache.putProduct(id, generation, response.body(toProductDTO(product))).toResponseEntity(headers);
+            }
+
+            return response.body(toProductDTO(product));
+        });
     }
 
     /**
@@ -119,16 +268,24 @@ public class ProductController {
                             schema = @Schema(implementation = ProductDTO.class))}),
             @ApiResponse(responseCode = "400", description = "Bad request", content = @Content),
             @ApiResponse(responseCode = "404", description = "Product not found", content = {@Content(mediaType = "application/json",
+                    schema = @Schema(implementation = MessageError.class))}),
+            @ApiResponse(responseCode = "412", description = "Product was modified", content = {@Content(mediaType = "application/json",
                     schema = @Schema(implementation = MessageError.class))})})
-    public ResponseEntity<ProductDTO> putProduct(@PathVariable UUID id, @RequestBody ProductDTO productDTO) {
+    public ResponseEntity<ProductDTO> putProduct(@PathVariable UUID id, @RequestBody ProductDTO productDTO, @RequestHeader HttpHeaders headers) {
+
+        Product product = productService.updateProduct(id, productDTO, ConditionalRequests.expectedVersion(headers));
 
-        ProductDTO productSaved = productService.updateProduct(id, productDTO);
+        if (product == null) throw new ProductNotFoundException("Product Not Found");
 
-        if (productSaved == null) throw new ProductNotFoundException("Product Not Found");
+        ProductDTO productSaved = toProductDTO(product);
 
-        log.info("ProductDTO: {} ", productSaved);
+        log.info("putProduct id={} version={}", id, product.getVersion());
+        payloadLogger.log("putProduct", productSaved);
 
-        return new ResponseEntity<>(productSaved, HttpStatus.OK);
+        return ResponseEntity.ok()
+                .eTag(ConditionalRequests.eTag(product))
+                .lastModified(ConditionalRequests.lastModified(product.getUpdatedAt()))
+                .body(productSaved);
     }
 
     /**
@@ -143,14 +300,14 @@ public class ProductController {
             @ApiResponse(responseCode = "200", description = "Delete product"),
             @ApiResponse(responseCode = "400", description = "Bad request", content = @Content),
             @ApiResponse(responseCode = "404", description = "Product not found", content = {@Content(mediaType = "application/json",
+                    schema = @Schema(implementation = MessageError.class))}),
+            @ApiResponse(responseCode = "412", description = "Product was modified", content = {@Content(mediaType = "application/json",
                     schema = @Schema(implementation = MessageError.class))})})
-    public ResponseEntity<Void> deleteProduct(@PathVariable UUID id) {
-
-        Product product = productService.findByExternalId(id);
-
-        if (product == null) throw new ProductNotFoundException("Product Not Found");
+    public ResponseEntity<Void> deleteProduct(@PathVariable UUID id, @RequestHeader HttpHeaders headers) {
 
-        productService.deleteProduct(product.getId());
+        if (!productService.deleteProduct(id, ConditionalRequests.expectedVersion(headers))) {
+            throw new ProductNotFoundException("Product Not Found");
+        }
 
         return new ResponseEntity<>(NO_CONTENT);
     }
@@ -164,20 +321,122 @@ public class ProductController {
      * @return List<ProductDTO>
      */
     @GetMapping("/search")
+    @RequestWeight(10)
     @Operation(summary = "Search products")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Products found",
                     content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = ProductDTO.class)))),
             @ApiResponse(responseCode = "400", description = "Bad request", content = @Content),
             @ApiResponse(responseCode = "404", description = "Products not found", content = @Content)})
-    public ResponseEntity<List<ProductDTO>> searchProducts(@RequestParam String q, @RequestParam BigDecimal min_price, BigDecimal max_price) {
+    public CompletableFuture<ResponseEntity<?>> searchProducts(@RequestParam String q, @RequestParam BigDecimal min_price, BigDecimal max_price,
+                                                               @RequestHeader HttpHeaders headers) {
 
-        List<ProductDTO> productDTOList = productService.searchProducts(q, min_price, max_price);
+        return requestExecutor.execute(() -> {
 
-        log.info("Product DTO Search List: {} ", productDTOList);
+            long started = System.nanoTime();
 
-        return ResponseEntity.ok()
-                .header("count", String.format("%d", productDTOList.size()))
-                .body(productDTOList);
+            String key = ResponseCache.searchKey(q, min_price, max_price);
+            CachedResponse cached = responseCache == null ? null : responseCache.getPage(key);
+
+            if (cached != null) {
+                productMetrics.recordSearchSize(cached.getCount());
+                log.info("searchProducts q={} min_price={} max_price={} count={} cached=true millis={}", q, min_price, max_price, cached.getCount(),
+                        millisSince(started));
+                return respond(cached, headers, false);
+            }
+
+            long generation = responseCache == null ? 0 : responseCache.generation();
+
+            if (!headers.getIfNoneMatch().isEmpty()) {
+                ProductsSummary summary = productService.summarizeSearch(q, min_price, max_price);
+                String eTag = ConditionalRequests.eTag(summary);
+                if (ConditionalRequests.isNotModified(headers, eTag, null)) {
+                    return ConditionalRequests.notModified(eTag, ConditionalRequests.lastModified(summary.getLastUpdatedAt()));
+                }
+            }
+
+            ProductList productList = productService.searchProducts(q, min_price, max_price);
+            List<ProductDTO> productDTOList = productList.getProducts();
+
+            productMetrics.recordSearchSize(productDTOList.size());
+
+            log.info("searchProducts q={} min_price={} max_price={} count={} millis={}", q, min_price, max_price, productDTOList.size(),
+                    millisSince(started));
+            payloadLogger.log("searchProducts", productDTOList);
+
+            if (responseCache != null) {
+                return respond(responseCache.putPage(key, generation, ok(productList.getSummary()).body(productDTOList), productDTOList.size()),
+                        headers, false);
+            }
+
+            return ok(productList.getSummary()).body(productDTOList);
+        });
+    }
+
+    /**
+     * Search Facets
+     *
+     * @param q         Name or Description
+     * @param min_price BigDecimal
+     * @param max_price BigDecimal
+     * @param buckets   Integer number of price buckets
+     * @return PriceFacetsDTO
+     */
+    @GetMapping("/search/facets")
+    @RequestWeight(10)
+    @Operation(summary = "Count search hits per price bucket")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Hit count, price statistics and histogram",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PriceFacetsDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content)})
+    public CompletableFuture<ResponseEntity<PriceFacetsDTO>> searchFacets(@RequestParam String q, @RequestParam BigDecimal min_price, BigDecimal max_price,
+                                                                          @RequestParam(required = false) Integer buckets) {
+
+        return requestExecutor.execute(() -> {
+
+            PriceFacetsDTO priceFacets = productService.facetSearch(q, min_price, max_price, buckets);
+
+            log.info("Price facets: {} hits in {} buckets", priceFacets.getCount(), priceFacets.getBuckets().size());
+
+            return ResponseEntity.ok(priceFacets);
+        });
+    }
+
+    /**
+     * 304 when the cached validators match, the cached bytes otherwise.
+     *
+     * @param byDate whether If-Modified-Since is honoured, see {@link #ok(ProductsSummary)}
+     */
+    private static ResponseEntity<?> respond(CachedResponse cached, HttpHeaders headers, boolean byDate) {
+
+        if (ConditionalRequests.isNotModified(headers, cached.getETag(), byDate ? cached.getLastModified() : null)) {
+            return ConditionalRequests.notModified(cached.getETag(headers), cached.getLastModified());
+        }
+
+        return cached.toResponseEntity(headers);
+    }
+
+    private static long millisSince(long started) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    /**
+     * 200 for a list: count header plus the validators of its summary. If-Modified-Since is not honoured
+     * for lists, a deleted row does not move the date, so revalidation goes through the ETag.
+     */
+    private static ResponseEntity.BodyBuilder ok(ProductsSummary summary) {
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header("count", String.format("%d", summary.getCount()))
+                .eTag(ConditionalRequests.eTag(summary));
+
+        Instant lastModified = ConditionalRequests.lastModified(summary.getLastUpdatedAt());
+
+        if (lastModified != null) {
+            response.lastModified(lastModified);
+        }
+
+        return response;
     }
 }
@@ -0,0 +1,157 @@
+package dev.deyve.productapi.controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.deyve.productapi.parsers.AcceptEncodingParser;
+import dev.deyve.productapi.parsers.ProductCsvParser;
+import dev.deyve.productapi.serializers.ProductJsonWriter;
+import dev.deyve.productapi.services.ProductService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.media.Content;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import static dev.deyve.productapi.parsers.ProductParser.toProductDTO;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Product Export Controller
+ */
+@Log4j2
+@RestController
+@ConditionalOnWebApplication(type = SERVLET)
+@RequestMapping("/products/export")
+public class ProductExportController {
+
+    private static final String NDJSON = "ndjson";
+
+    private static final String CSV = "csv";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ProductService productService;
+
+    private final ObjectMapper objectMapper;
+
+    public ProductExportController(ProductService productService, ObjectMapper objectMapper) {
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Export Products
+     * <p>
+     * Rows are written one at a time as they come off the database cursor; nothing is collected,
+     * so heap use does not depend on the catalog size.
+     *
+     * @param format         ndjson or csv
+     * @param acceptEncoding gzip, unless refused with q=0, compresses the body
+     * @return StreamingResponseBody
+     */
+    @GetMapping
+    @RequestWeight(100)
+    @Operation(summary = "Export the whole catalog as NDJSON or CSV")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Catalog exported", content = {
+                    @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE),
+                    @Content(mediaType = "text/csv")}),
+            @ApiResponse(responseCode = "400", description = "Unknown format", content = @Content)})
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = NDJSON) String format,
+                                                                @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        boolean csv = CSV.equalsIgnoreCase(format);
+
+        if (!csv && !NDJSON.equalsIgnoreCase(format)) {
+            throw new ResponseStatusException(BAD_REQUEST, "Unknown export format: " + format);
+        }
+
+        boolean gzip = AcceptEncodingParser.acceptsGzip(acceptEncoding);
+
+        StreamingResponseBody body = outputStream -> {
+            OutputStream target = gzip ? new GZIPOutputStream(outputStream, BUFFER_SIZE) : outputStream;
+            long count = csv ? writeCsv(target) : writeNdjson(target);
+            if (gzip) {
+                ((GZIPOutputStream) target).finish();
+            }
+            log.info("Exported {} products as {}", count, csv ? CSV : NDJSON);
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", UTF_8) : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=products." + (csv ? CSV : NDJSON))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return response.body(body);
+    }
+
+    private long writeNdjson(OutputStream outputStream) throws IOException {
+
+        AtomicLong count = new AtomicLong();
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            productService.streamProducts(product -> {
+                try {
+                    ProductJsonWriter.write(generator, product);
+                    generator.writeRaw('\n');
+                    count.incrementAndGet();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+
+        return count.get();
+    }
+
+    private long writeCsv(OutputStream outputStream) throws IOException {
+
+        AtomicLong count = new AtomicLong();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8), BUFFER_SIZE);
+
+        writer.write(ProductCsvParser.HEADER);
+        writer.write('\n');
+
+        productService.streamProducts(product -> {
+            try {
+                writer.write(ProductCsvParser.toCsvLine(toProductDTO(product)));
+                writer.write('\n');
+                count.incrementAndGet();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        writer.flush();
+
+        return count.get();
+    }
+}
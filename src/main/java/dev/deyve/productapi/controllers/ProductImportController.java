@@ -0,0 +1,138 @@
+package dev.deyve.productapi.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import dev.deyve.productapi.dtos.ImportResultDTO;
+import dev.deyve.productapi.dtos.ImportStatusDTO;
+import dev.deyve.productapi.services.ProductImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+/**
+ * Product Import Controller
+ */
+@Log4j2
+@RestController
+@ConditionalOnWebApplication(type = SERVLET)
+@RequestMapping("/products/import")
+public class ProductImportController {
+
+    private final ProductImportService productImportService;
+
+    private final ObjectWriter statusWriter;
+
+    public ProductImportController(ProductImportService productImportService, ObjectMapper objectMapper) {
+        this.productImportService = productImportService;
+        this.statusWriter = objectMapper.writerFor(ImportStatusDTO.class);
+    }
+
+    /**
+     * Import Products
+     * <p>
+     * The body is read as a stream and never bound to a list, so the upload can be larger than the heap.
+     *
+     * @param inputStream request body
+     * @param contentType application/x-ndjson or text/csv
+     * @return ImportResultDTO
+     */
+    @PostMapping(consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    @RequestWeight(100)
+    @Operation(summary = "Import products from NDJSON or CSV")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import summary with the rejected lines",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ImportResultDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content),
+            @ApiResponse(responseCode = "503", description = "Too many imports running", content = @Content)})
+    public ResponseEntity<ImportResultDTO> importProducts(InputStream inputStream,
+                                                          @RequestHeader(CONTENT_TYPE) MediaType contentType) throws IOException {
+
+        try {
+            ImportResultDTO importResult = productImportService.importProducts(inputStream, contentType);
+
+            return ResponseEntity.ok(importResult);
+        } catch (TaskRejectedException e) {
+            throw new ResponseStatusException(SERVICE_UNAVAILABLE, "Too many imports running");
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Import Products, streaming their status
+     * <p>
+     * Chosen with Accept: application/x-ndjson. Each rejected line and the counters after each written chunk
+     * are sent as they happen, one ImportStatusDTO per line, and the final counters close the stream. The
+     * response is committed with the first line, so an import that fails after it ends without a RESULT line.
+     *
+     * @param inputStream request body
+     * @param contentType application/x-ndjson or text/csv
+     * @param response    the status stream
+     */
+    @PostMapping(consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @RequestWeight(100)
+    @Operation(summary = "Import products from NDJSON or CSV, streaming progress and rejected lines")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "ERROR and PROGRESS lines as the import runs, then a RESULT line",
+                    content = {@Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = ImportStatusDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content),
+            @ApiResponse(responseCode = "503", description = "Too many imports running", content = @Content)})
+    public void importProductsWithStatus(InputStream inputStream, @RequestHeader(CONTENT_TYPE) MediaType contentType,
+                                         HttpServletResponse response) throws IOException {
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        ServletOutputStream outputStream = response.getOutputStream();
+
+        try {
+            ImportResultDTO importResult = productImportService.importProducts(inputStream, contentType, status -> {
+                try {
+                    writeStatus(outputStream, status);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            writeStatus(outputStream, ImportStatusDTO.builder()
+                    .type(ImportStatusDTO.Type.RESULT)
+                    .rows(importResult.getRows())
+                    .imported(importResult.getImported())
+                    .failed(importResult.getFailed())
+                    .build());
+        } catch (TaskRejectedException e) {
+            throw new ResponseStatusException(SERVICE_UNAVAILABLE, "Too many imports running");
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private void writeStatus(ServletOutputStream outputStream, ImportStatusDTO status) throws IOException {
+        outputStream.write(statusWriter.writeValueAsBytes(status));
+        outputStream.write('\n');
+        outputStream.flush();
+    }
+}
@@ -0,0 +1,83 @@
+package dev.deyve.productapi.controllers;
+
+import dev.deyve.productapi.configurations.BatchProperties;
+import dev.deyve.productapi.dtos.LookupResultDTO;
+import dev.deyve.productapi.metrics.ProductMetrics;
+import dev.deyve.productapi.services.ProductService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Product Lookup Controller
+ */
+@Log4j2
+@RestController
+@ConditionalOnWebApplication(type = SERVLET)
+@RequestMapping("/products/lookup")
+public class ProductLookupController {
+
+    private final ProductService productService;
+
+    private final ProductMetrics productMetrics;
+
+    private final BatchProperties batchProperties;
+
+    public ProductLookupController(ProductService productService, ProductMetrics productMetrics, BatchProperties batchProperties) {
+        this.productService = productService;
+        this.productMetrics = productMetrics;
+        this.batchProperties = batchProperties;
+    }
+
+    /**
+     * Lookup Products
+     * <p>
+     * Many GET /products/{id} in one request.
+     *
+     * @param ids List<UUID>
+     * @return LookupResultDTO
+     */
+    @PostMapping
+    @RequestWeight(10)
+    @Operation(summary = "Find products by a list of ids")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products in the order of the ids, and the ids not found",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = LookupResultDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content)})
+    public ResponseEntity<LookupResultDTO> lookupProducts(@RequestBody List<UUID> ids) {
+
+        if (ids.size() > batchProperties.getMaxItems()) {
+            throw new ResponseStatusException(BAD_REQUEST,
+                    String.format("Lookup has %d ids, the limit is %d", ids.size(), batchProperties.getMaxItems()));
+        }
+
+        if (ids.contains(null)) {
+            throw new ResponseStatusException(BAD_REQUEST, "Product id is required");
+        }
+
+        LookupResultDTO lookupResult = productService.lookupProducts(ids);
+
+        log.info("Lookup: {} found, {} missing", lookupResult.getProducts().size(), lookupResult.getMissing().size());
+
+        productMetrics.recordLookupSize(lookupResult.getProducts().size());
+
+        return ResponseEntity.ok(lookupResult);
+    }
+}
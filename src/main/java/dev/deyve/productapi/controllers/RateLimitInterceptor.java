@@ -0,0 +1,92 @@
+package dev.deyve.productapi.controllers;
+
+import dev.deyve.productapi.exceptions.RequestRejectedException;
+import dev.deyve.productapi.limiters.LoadShedder;
+import dev.deyve.productapi.limiters.RequestLimiter;
+import dev.deyve.productapi.metrics.ProductMetrics;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+
+/**
+ * Rate Limit Interceptor
+ * <p>
+ * While the service is saturated, requests weighing more than one are answered 503 so point lookups and
+ * writes keep their connections; otherwise a client out of tokens is answered 429. Both carry Retry-After.
+ * The client header picks the bucket only when it can be believed, as a known key or set by a trusted
+ * gateway: a made-up value would otherwise buy a fresh bucket, and floods of them push real clients out.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RequestLimiter requestLimiter;
+
+    private final LoadShedder loadShedder;
+
+    private final ProductMetrics productMetrics;
+
+    private final String clientHeader;
+
+    private final Set<String> clientKeys;
+
+    private final boolean trustClientHeader;
+
+    private final long shedRetryAfterSeconds;
+
+    public RateLimitInterceptor(RequestLimiter requestLimiter, LoadShedder loadShedder, ProductMetrics productMetrics,
+                                String clientHeader, Set<String> clientKeys, boolean trustClientHeader, Duration shedRetryAfter) {
+        this.requestLimiter = requestLimiter;
+        this.loadShedder = loadShedder;
+        this.productMetrics = productMetrics;
+        this.clientHeader = clientHeader;
+        this.clientKeys = Set.copyOf(clientKeys);
+        this.trustClientHeader = trustClientHeader;
+        this.shedRetryAfterSeconds = Math.max(1, shedRetryAfter.toSeconds());
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+
+        if (!(handler instanceof HandlerMethod) || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        RequestWeight requestWeight = handlerMethod.getMethodAnnotation(RequestWeight.class);
+        int weight = requestWeight == null ? 1 : requestWeight.value();
+
+        if (weight > 1 && loadShedder.isOverloaded()) {
+            productMetrics.recordRejected("overloaded", handlerMethod.getMethod().getName());
+            throw new RequestRejectedException(SERVICE_UNAVAILABLE, shedRetryAfterSeconds, "Service is saturated, try again later");
+        }
+
+        long wait = requestLimiter.tryAcquire(client(request), weight);
+
+        if (wait > 0) {
+            productMetrics.recordRejected("rate_limited", handlerMethod.getMethod().getName());
+            throw new RequestRejectedException(TOO_MANY_REQUESTS, Math.max(1, (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1)),
+                    "Rate limit exceeded");
+        }
+
+        return true;
+    }
+
+    private String client(HttpServletRequest request) {
+
+        String client = request.getHeader(clientHeader);
+
+        if (client == null || client.isBlank() || !(trustClientHeader || clientKeys.contains(client))) {
+            return request.getRemoteAddr();
+        }
+
+        return client;
+    }
+}
@@ -0,0 +1,104 @@
+package dev.deyve.productapi.controllers;
+
+import dev.deyve.productapi.dtos.ProductDTO;
+import dev.deyve.productapi.exceptions.MessageError;
+import dev.deyve.productapi.exceptions.ProductNotFoundException;
+import dev.deyve.productapi.services.ReactiveProductService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+
+/**
+ * Reactive Product Controller
+ * <p>
+ * The product reads of {@link ProductController} on WebFlux, active with the reactive profile. Lists
+ * are sent as a JSON array, or with Accept: application/x-ndjson one product per line, written as
+ * the client reads them so a slow client holds back the R2DBC cursor instead of filling memory.
+ */
+@RestController
+@ConditionalOnWebApplication(type = REACTIVE)
+@RequestMapping("/products")
+public class ReactiveProductController {
+
+    private final ReactiveProductService reactiveProductService;
+
+    public ReactiveProductController(ReactiveProductService reactiveProductService) {
+        this.reactiveProductService = reactiveProductService;
+    }
+
+    /**
+     * Get Products
+     *
+     * @param after UUID cursor, the last id of the previous page
+     * @param limit Integer page size
+     * @return Flux<ProductDTO>
+     */
+    @GetMapping(produces = {APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Find products")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products found",
+                    content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = ProductDTO.class)))),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content)})
+    public Flux<ProductDTO> getProducts(@RequestParam(required = false) UUID after, @RequestParam(required = false) Integer limit) {
+
+        return reactiveProductService.findProducts(after, limit);
+    }
+
+    /**
+     * Get Product
+     *
+     * @param id UUID
+     * @return Mono<ProductDTO>
+     */
+    @GetMapping("/{id}")
+    @Operation(summary = "Get product by Id")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found product",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ProductDTO.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid id supplied", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Product not found", content = {@Content(mediaType = "application/json",
+                    schema = @Schema(implementation = MessageError.class))})})
+    public Mono<ProductDTO> getProduct(@PathVariable UUID id) {
+
+        return reactiveProductService.findByExternalId(id)
+                .switchIfEmpty(Mono.error(() -> new ProductNotFoundException("Product Not Found")));
+    }
+
+    /**
+     * Search Products
+     *
+     * @param q         Name or Description
+     * @param min_price BigDecimal
+     * @param max_price BigDecimal
+     * @return Flux<ProductDTO>
+     */
+    @GetMapping(value = "/search", produces = {APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Search products")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products found",
+                    content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = ProductDTO.class)))),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content)})
+    public Flux<ProductDTO> searchProducts(@RequestParam String q, @RequestParam BigDecimal min_price, BigDecimal max_price) {
+
+        return reactiveProductService.searchProducts(q, min_price, max_price);
+    }
+}
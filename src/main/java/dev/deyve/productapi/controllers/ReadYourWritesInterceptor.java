@@ -0,0 +1,135 @@
+package dev.deyve.productapi.controllers;
+
+import dev.deyve.productapi.configurations.ReadRouting;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Read Your Writes Interceptor
+ * <p>
+ * A write hands the client a Read-Primary-Until cookie and header, the epoch millis until which its reads
+ * go to the primary; a client that sends either back before then does not see a lagging replica. The value
+ * is signed, and one further out than the window is ignored, so a client cannot pin itself to the primary.
+ */
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String READ_PRIMARY_UNTIL = "Read-Primary-Until";
+
+    private static final String HMAC = "HmacSHA256";
+
+    private final Duration window;
+
+    private final SecretKeySpec key;
+
+    private final Set<String> readPaths;
+
+    /**
+     * @param key       HMAC key the values are signed with, the same on every instance
+     * @param readPaths paths that only read although they are not GET, e.g. /products/lookup
+     */
+    public ReadYourWritesInterceptor(Duration window, byte[] key, String... readPaths) {
+        this.window = window;
+        this.key = new SecretKeySpec(key, HMAC);
+        this.readPaths = Set.of(readPaths);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+
+        long now = System.currentTimeMillis();
+        long until = readPrimaryUntil(request);
+
+        if (now < until && until <= now + window.toMillis()) {
+            ReadRouting.requirePrimary();
+        }
+
+        if (HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod())
+                || readPaths.contains(request.getRequestURI().substring(request.getContextPath().length()))) {
+            return true;
+        }
+
+        String value = sign(String.valueOf(now + window.toMillis()));
+
+        Cookie cookie = new Cookie(READ_PRIMARY_UNTIL, value);
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+
+        response.addCookie(cookie);
+        response.setHeader(READ_PRIMARY_UNTIL, value);
+
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReadRouting.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReadRouting.clear();
+    }
+
+    /**
+     * @return the signed epoch millis, or 0 when there is none or it is not signed with our key
+     */
+    private long readPrimaryUntil(HttpServletRequest request) {
+
+        String value = request.getHeader(READ_PRIMARY_UNTIL);
+
+        if (value == null && request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (READ_PRIMARY_UNTIL.equals(cookie.getName())) {
+                    value = cookie.getValue();
+                }
+            }
+        }
+
+        int separator = value == null ? -1 : value.indexOf('.');
+
+        if (separator < 0) {
+            return 0;
+        }
+
+        String until = value.substring(0, separator);
+
+        if (!MessageDigest.isEqual(sign(until).getBytes(US_ASCII), value.getBytes(US_ASCII))) {
+            return 0;
+        }
+
+        try {
+            return Long.parseLong(until);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * until.signature, the signature being the base64url HMAC of until; cookie safe.
+     */
+    private String sign(String until) {
+
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+
+            return until + '.' + Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal(until.getBytes(US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
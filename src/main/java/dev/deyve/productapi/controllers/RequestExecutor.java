@@ -0,0 +1,38 @@
+package dev.deyve.productapi.controllers;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Request Executor
+ * <p>
+ * Runs controller work according to product.execution.mode. Without a productRequestExecutor bean the work
+ * runs on the calling thread and exceptions are thrown straight away; with one, the servlet thread
+ * is released and Spring MVC completes the request when the future does.
+ */
+@Log4j2
+@Component
+public class RequestExecutor {
+
+    private final Executor executor;
+
+    public RequestExecutor(@Nullable @Qualifier("productRequestExecutor") Executor executor) {
+        this.executor = executor;
+        log.info("Product requests run {}", executor == null ? "on the servlet threads" : "on the request executor");
+    }
+
+    public <T> CompletableFuture<T> execute(Supplier<T> supplier) {
+
+        if (executor == null) {
+            return CompletableFuture.completedFuture(supplier.get());
+        }
+
+        return CompletableFuture.supplyAsync(supplier, executor);
+    }
+}
@@ -0,0 +1,19 @@
+package dev.deyve.productapi.controllers;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Request Weight
+ * <p>
+ * Tokens an endpoint takes from the client's rate limit; endpoints without it cost one. Anything above one
+ * is also shed first when the service is saturated.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequestWeight {
+
+    int value();
+}
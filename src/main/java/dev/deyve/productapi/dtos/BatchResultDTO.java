@@ -0,0 +1,22 @@
+package dev.deyve.productapi.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResultDTO {
+
+    private int succeeded;
+
+    private int failed;
+
+    private List<BatchItemResultDTO> items;
+
+}
@@ -0,0 +1,37 @@
+package dev.deyve.productapi.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidationDTO {
+
+    /**
+     * Instance that made the change; it does not apply its own invalidations twice.
+     */
+    private String origin;
+
+    /**
+     * Entity ids, when known, evicted from the second-level cache.
+     */
+    private List<Long> ids;
+
+    /**
+     * External ids evicted from the products cache.
+     */
+    private List<UUID> externalIds;
+
+    /**
+     * Drop everything, e.g. after a listener missed invalidations.
+     */
+    private boolean all;
+
+}
@@ -0,0 +1,24 @@
+package dev.deyve.productapi.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResultDTO {
+
+    private long rows;
+
+    private long imported;
+
+    private long failed;
+
+    private List<ImportErrorDTO> errors;
+
+}
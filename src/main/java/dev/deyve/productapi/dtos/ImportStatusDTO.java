@@ -0,0 +1,35 @@
+package dev.deyve.productapi.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A line of the NDJSON import status stream: a rejected line, the counters after a written chunk, or the
+ * final counters.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportStatusDTO {
+
+    private Type type;
+
+    private Long line;
+
+    private String message;
+
+    private Long rows;
+
+    private Long imported;
+
+    private Long failed;
+
+    public enum Type {
+        ERROR, PROGRESS, RESULT
+    }
+}
@@ -0,0 +1,24 @@
+package dev.deyve.productapi.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LookupResultDTO {
+
+    /**
+     * Found products, in the order their ids were sent.
+     */
+    private List<ProductDTO> products;
+
+    private List<UUID> missing;
+
+}
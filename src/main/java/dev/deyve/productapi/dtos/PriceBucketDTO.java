@@ -0,0 +1,25 @@
+package dev.deyve.productapi.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceBucketDTO {
+
+    private BigDecimal from;
+
+    /**
+     * Exclusive, except for the last bucket.
+     */
+    private BigDecimal to;
+
+    private long count;
+
+}
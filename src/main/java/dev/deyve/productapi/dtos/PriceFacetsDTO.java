@@ -0,0 +1,30 @@
+package dev.deyve.productapi.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceFacetsDTO {
+
+    private long count;
+
+    private BigDecimal minPrice;
+
+    private BigDecimal maxPrice;
+
+    private BigDecimal avgPrice;
+
+    /**
+     * Equal-width buckets between minPrice and maxPrice.
+     */
+    private List<PriceBucketDTO> buckets;
+
+}
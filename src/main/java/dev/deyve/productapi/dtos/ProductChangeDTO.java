@@ -0,0 +1,43 @@
+package dev.deyve.productapi.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductChangeDTO {
+
+    /**
+     * Position in the change log, the cursor to send as since on the next request.
+     */
+    private long sequence;
+
+    private UUID id;
+
+    private Operation operation;
+
+    private String name;
+
+    private String description;
+
+    private BigDecimal price;
+
+    private Long version;
+
+    private LocalDateTime changedAt;
+
+    public enum Operation {
+        CREATED, UPDATED, DELETED
+    }
+
+}
@@ -0,0 +1,24 @@
+package dev.deyve.productapi.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SnapshotStatsDTO {
+
+    private int products;
+
+    private int words;
+
+    private long estimatedBytes;
+
+    private long bytesPerProduct;
+
+    private long ageMillis;
+
+}
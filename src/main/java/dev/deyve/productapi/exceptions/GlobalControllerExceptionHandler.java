@@ -1,6 +1,9 @@
 package dev.deyve.productapi.exceptions;
 
 import org.springframework.core.convert.ConversionFailedException;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -8,7 +11,10 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 
 @RestControllerAdvice
 public class GlobalControllerExceptionHandler {
@@ -27,6 +33,35 @@ public class GlobalControllerExceptionHandler {
         return ResponseEntity.status(NOT_FOUND).body(buildMessage(ex.getMessage(), NOT_FOUND));
     }
 
+    @ExceptionHandler(ProductPreconditionFailedException.class)
+    @ResponseStatus(PRECONDITION_FAILED)
+    public ResponseEntity<MessageError> handlePreconditionFailed(RuntimeException ex) {
+
+        return ResponseEntity.status(PRECONDITION_FAILED).body(buildMessage(ex.getMessage(), PRECONDITION_FAILED));
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(CONFLICT)
+    public ResponseEntity<MessageError> handleConflict(RuntimeException ex) {
+
+        return ResponseEntity.status(CONFLICT).body(buildMessage("Product was modified concurrently", CONFLICT));
+    }
+
+    @ExceptionHandler(TaskRejectedException.class)
+    @ResponseStatus(SERVICE_UNAVAILABLE)
+    public ResponseEntity<MessageError> handleRejected(RuntimeException ex) {
+
+        return ResponseEntity.status(SERVICE_UNAVAILABLE).body(buildMessage("Too many requests in progress", SERVICE_UNAVAILABLE));
+    }
+
+    @ExceptionHandler(RequestRejectedException.class)
+    public ResponseEntity<MessageError> handleRequestRejected(RequestRejectedException ex) {
+
+        return ResponseEntity.status(ex.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(buildMessage(ex.getMessage(), ex.getStatus()));
+    }
+
     private MessageError buildMessage(String message, HttpStatus status) {
         return MessageError.builder()
                 .statusCode(status.value())
@@ -0,0 +1,21 @@
+package dev.deyve.productapi.exceptions;
+
+public class ProductPreconditionFailedException extends RuntimeException {
+
+    public ProductPreconditionFailedException() {
+        super();
+    }
+
+    public ProductPreconditionFailedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ProductPreconditionFailedException(String message) {
+        super(message);
+    }
+
+    public ProductPreconditionFailedException(Throwable cause) {
+        super(cause);
+    }
+
+}
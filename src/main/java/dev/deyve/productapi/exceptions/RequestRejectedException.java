@@ -0,0 +1,22 @@
+package dev.deyve.productapi.exceptions;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown before a request reaches its controller, with the status and the seconds for Retry-After.
+ */
+@Getter
+public class RequestRejectedException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    private final long retryAfterSeconds;
+
+    public RequestRejectedException(HttpStatus status, long retryAfterSeconds, String message) {
+        super(message);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+}
@@ -0,0 +1,92 @@
+package dev.deyve.productapi.limiters;
+
+import dev.deyve.productapi.configurations.RateLimitProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load Shedder
+ * <p>
+ * Tells whether the service is saturated from the Hikari pool metrics of every pool (requests waiting for
+ * a connection, average wait for one since the last look) and the queue of the async request executor.
+ * The signals are read at most every {@link #SAMPLE_INTERVAL_NANOS}, by whichever request comes first.
+ */
+@Log4j2
+public class LoadShedder {
+
+    static final long SAMPLE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final RateLimitProperties rateLimitProperties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ThreadPoolTaskExecutor requestExecutor;
+
+    private final AtomicLong sampledAt = new AtomicLong(System.nanoTime() - SAMPLE_INTERVAL_NANOS);
+
+    private volatile boolean overloaded;
+
+    private long acquireCount;
+
+    private double acquireTime;
+
+    public LoadShedder(RateLimitProperties rateLimitProperties, MeterRegistry meterRegistry,
+                       @Nullable ThreadPoolTaskExecutor requestExecutor) {
+        this.rateLimitProperties = rateLimitProperties;
+        this.meterRegistry = meterRegistry;
+        this.requestExecutor = requestExecutor;
+    }
+
+    public boolean isOverloaded() {
+
+        long now = System.nanoTime();
+        long last = sampledAt.get();
+
+        if (now - last >= SAMPLE_INTERVAL_NANOS && sampledAt.compareAndSet(last, now)) {
+            sample();
+        }
+
+        return overloaded;
+    }
+
+    private synchronized void sample() {
+
+        double pending = 0;
+
+        for (Gauge gauge : meterRegistry.find("hikaricp.connections.pending").gauges()) {
+            pending += gauge.value();
+        }
+
+        long count = 0;
+        double time = 0;
+
+        for (Timer timer : meterRegistry.find("hikaricp.connections.acquire").timers()) {
+            count += timer.count();
+            time += timer.totalTime(TimeUnit.MILLISECONDS);
+        }
+
+        double wait = count > acquireCount ? (time - acquireTime) / (count - acquireCount) : 0;
+        acquireCount = count;
+        acquireTime = time;
+
+        int queued = requestExecutor == null ? 0 : requestExecutor.getThreadPoolExecutor().getQueue().size();
+
+        boolean saturated = pending > rateLimitProperties.getMaxPendingConnections()
+                || wait > rateLimitProperties.getMaxConnectionWait().toMillis()
+                || queued > rateLimitProperties.getMaxQueuedRequests();
+
+        if (saturated != overloaded) {
+            log.warn("{} shedding expensive requests: {} waiting for a connection, {} ms average wait, {} queued",
+                    saturated ? "Started" : "Stopped", (long) pending, (long) wait, queued);
+        }
+
+        overloaded = saturated;
+    }
+}
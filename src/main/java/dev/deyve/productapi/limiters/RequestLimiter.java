@@ -0,0 +1,37 @@
+package dev.deyve.productapi.limiters;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.deyve.productapi.configurations.RateLimitProperties;
+
+/**
+ * Request Limiter
+ * <p>
+ * One token bucket per client, kept in memory on each instance; with several instances a client gets the
+ * limit of each instance it reaches.
+ */
+public class RequestLimiter {
+
+    private final RateLimitProperties rateLimitProperties;
+
+    private final Cache<String, TokenBucket> buckets;
+
+    public RequestLimiter(RateLimitProperties rateLimitProperties) {
+        this.rateLimitProperties = rateLimitProperties;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(rateLimitProperties.getMaxClients())
+                .expireAfterAccess(rateLimitProperties.getIdleTimeout())
+                .build();
+    }
+
+    /**
+     * @return 0 when the client may go ahead, otherwise the nanoseconds until it may
+     */
+    public long tryAcquire(String client, int weight) {
+
+        long now = System.nanoTime();
+
+        return buckets.get(client, key -> new TokenBucket(rateLimitProperties.getCapacity(), rateLimitProperties.getRefillPerSecond(), now))
+                .tryConsume(weight, now);
+    }
+}
@@ -0,0 +1,59 @@
+package dev.deyve.productapi.limiters;
+
+/**
+ * Token Bucket
+ * <p>
+ * Starts full and refills continuously up to its capacity. The clock is passed in, in nanoseconds, so the
+ * bucket does not read it for every client.
+ */
+public class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final double capacity;
+
+    private final double tokensPerNano;
+
+    private double tokens;
+
+    private long refilledAt;
+
+    public TokenBucket(int capacity, double refillPerSecond, long now) {
+
+        if (capacity <= 0 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Capacity and refill rate must be positive");
+        }
+
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / NANOS_PER_SECOND;
+        this.tokens = capacity;
+        this.refilledAt = now;
+    }
+
+    /**
+     * Takes the tokens if the bucket holds them. A weight above the capacity is charged as a full bucket,
+     * otherwise it could never be served.
+     *
+     * @return 0 when the tokens were taken, otherwise the nanoseconds until the bucket holds them
+     */
+    public synchronized long tryConsume(int weight, long now) {
+
+        if (now > refilledAt) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+
+        double cost = Math.min(weight, capacity);
+
+        if (tokens >= cost) {
+            tokens -= cost;
+            return 0;
+        }
+
+        return (long) Math.ceil((cost - tokens) / tokensPerNano);
+    }
+
+    public synchronized double getTokens() {
+        return tokens;
+    }
+}
@@ -0,0 +1,39 @@
+package dev.deyve.productapi.loggers;
+
+import dev.deyve.productapi.configurations.LoggingProperties;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Payload Logger
+ * <p>
+ * Logs the full payload of a sample of the requests, at product.logging.payload-sample-rate. The sampling
+ * is decided before the payload is touched, so the requests left out never pay for its toString.
+ */
+@Log4j2(topic = "dev.deyve.productapi.payloads")
+@Component
+public class PayloadLogger {
+
+    private final double sampleRate;
+
+    public PayloadLogger(LoggingProperties loggingProperties) {
+        this.sampleRate = Math.max(0, Math.min(loggingProperties.getPayloadSampleRate(), 1));
+    }
+
+    /**
+     * @param operation handler the payload belongs to, e.g. searchProducts
+     * @param payload   request or response body
+     */
+    public void log(String operation, Object payload) {
+
+        if (sampled() && log.isInfoEnabled()) {
+            log.info("{} payload: {}", operation, payload);
+        }
+    }
+
+    public boolean sampled() {
+        return sampleRate > 0 && (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+}
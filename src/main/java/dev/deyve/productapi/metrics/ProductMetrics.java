@@ -0,0 +1,63 @@
+package dev.deyve.productapi.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Product Metrics
+ */
+@Component
+public class ProductMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    private final DistributionSummary listResultSize;
+
+    private final DistributionSummary searchResultSize;
+
+    private final DistributionSummary lookupResultSize;
+
+    public ProductMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.listResultSize = resultSize(meterRegistry, "list");
+        this.searchResultSize = resultSize(meterRegistry, "search");
+        this.lookupResultSize = resultSize(meterRegistry, "lookup");
+    }
+
+    public void recordListSize(int size) {
+        listResultSize.record(size);
+    }
+
+    public void recordSearchSize(int size) {
+        searchResultSize.record(size);
+    }
+
+    public void recordLookupSize(int size) {
+        lookupResultSize.record(size);
+    }
+
+    /**
+     * @param reason   rate_limited or overloaded
+     * @param endpoint handler method that would have served the request
+     */
+    public void recordRejected(String reason, String endpoint) {
+
+        Counter.builder("product.requests.rejected")
+                .description("Requests rejected before reaching a controller")
+                .tag("reason", reason)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static DistributionSummary resultSize(MeterRegistry meterRegistry, String operation) {
+
+        return DistributionSummary.builder("product.result.size")
+                .description("Number of products returned per response")
+                .baseUnit("products")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
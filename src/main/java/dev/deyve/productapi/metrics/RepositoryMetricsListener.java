@@ -0,0 +1,36 @@
+package dev.deyve.productapi.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository Metrics Listener
+ * <p>
+ * Times every Spring Data repository call as product.repository.invocations, tagged with the
+ * repository, the method and whether it succeeded. For Stream results only the query start is timed.
+ */
+public class RepositoryMetricsListener implements RepositoryMethodInvocationListener {
+
+    public static final String METRIC_NAME = "product.repository.invocations";
+
+    private final MeterRegistry meterRegistry;
+
+    public RepositoryMetricsListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void afterInvocation(RepositoryMethodInvocation invocation) {
+
+        Timer.builder(METRIC_NAME)
+                .description("Duration of repository method invocations")
+                .tag("repository", invocation.getRepositoryInterface().getSimpleName())
+                .tag("method", invocation.getMethod().getName())
+                .tag("state", invocation.getResult().getState().name())
+                .register(meterRegistry)
+                .record(invocation.getDuration(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+}
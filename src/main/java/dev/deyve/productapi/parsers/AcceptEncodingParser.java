@@ -0,0 +1,71 @@
+package dev.deyve.productapi.parsers;
+
+import java.util.Locale;
+
+/**
+ * Accept Encoding Parser
+ */
+public class AcceptEncodingParser {
+
+    private static final String GZIP = "gzip";
+
+    private static final String X_GZIP = "x-gzip";
+
+    private static final String ANY = "*";
+
+    /**
+     * Whether gzip may be sent (RFC 7231, section 5.3.4): its own entry, x-gzip included, or else the * entry,
+     * with a q-value above 0. A missing or empty header accepts nothing but the plain body.
+     *
+     * @param acceptEncoding Accept-Encoding header, null when absent
+     * @return true when a gzip body is acceptable
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        Double gzip = null;
+        Double any = null;
+
+        for (String entry : acceptEncoding.split(",")) {
+
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+
+            if (coding.equals(GZIP) || coding.equals(X_GZIP)) {
+                gzip = Math.max(gzip == null ? 0 : gzip, quality(parts));
+            } else if (coding.equals(ANY)) {
+                any = quality(parts);
+            }
+        }
+
+        if (gzip != null) {
+            return gzip > 0;
+        }
+
+        return any != null && any > 0;
+    }
+
+    /**
+     * The q parameter, 1 when there is none and 0, so not acceptable, when it is malformed.
+     */
+    private static double quality(String[] parts) {
+
+        for (int i = 1; i < parts.length; i++) {
+
+            String parameter = parts[i].trim();
+
+            if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+
+        return 1;
+    }
+}
@@ -0,0 +1,180 @@
+package dev.deyve.productapi.parsers;
+
+import dev.deyve.productapi.dtos.ProductDTO;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Product CSV Parser
+ * <p>
+ * RFC 4180 style fields, quoted with double quotes. A quoted field may span lines; its line breaks are
+ * read back as \n.
+ */
+public class ProductCsvParser {
+
+    public static final String HEADER = "id,name,description,price";
+
+    /**
+     * Longest record read, so a stray quote fails the import instead of pulling the rest of it into memory.
+     */
+    static final int MAX_RECORD_LENGTH = 1024 * 1024;
+
+    private static final String NAME = "name";
+
+    private static final String DESCRIPTION = "description";
+
+    private static final String PRICE = "price";
+
+    /**
+     * Reads the next record: a line, joined with the lines after it while a quoted field is still open.
+     *
+     * @param reader CSV input
+     * @return the record, without its final line break, or null at the end of the input
+     * @throws IOException when the input cannot be read
+     */
+    public static String readRecord(BufferedReader reader) throws IOException {
+
+        String line = reader.readLine();
+
+        if (line == null || quotes(line) % 2 == 0) {
+            return line;
+        }
+
+        StringBuilder record = new StringBuilder(line);
+        long quotes = quotes(line);
+
+        while (quotes % 2 != 0 && (line = reader.readLine()) != null) {
+
+            if (record.length() + line.length() >= MAX_RECORD_LENGTH) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+
+            record.append('\n').append(line);
+            quotes += quotes(line);
+        }
+
+        // still open at the end of the input: left to split to reject
+        return record.toString();
+    }
+
+    /**
+     * Maps the lower-cased column names of the header line to their position.
+     *
+     * @param line header line
+     * @return Map<String, Integer>
+     */
+    public static Map<String, Integer> toHeader(String line) {
+
+        List<String> columns = split(line);
+        Map<String, Integer> header = new HashMap<>();
+
+        for (int i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        if (!header.containsKey(NAME)) {
+            throw new IllegalArgumentException("CSV header must have a name column");
+        }
+
+        return header;
+    }
+
+    public static ProductDTO toProductDTO(Map<String, Integer> header, String line) {
+
+        List<String> fields = split(line);
+        String price = field(header, fields, PRICE);
+
+        try {
+            return ProductDTO.builder()
+                    .name(field(header, fields, NAME))
+                    .description(field(header, fields, DESCRIPTION))
+                    .price(price == null ? null : new BigDecimal(price.trim()))
+                    .build();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid price: " + price);
+        }
+    }
+
+    /**
+     * Writes a product as a CSV line, in the column order of {@link #HEADER}, without the line break.
+     */
+    public static String toCsvLine(ProductDTO productDTO) {
+
+        return String.join(",",
+                productDTO.getId() == null ? "" : productDTO.getId().toString(),
+                quote(productDTO.getName()),
+                quote(productDTO.getDescription()),
+                productDTO.getPrice() == null ? "" : productDTO.getPrice().toPlainString());
+    }
+
+    private static String quote(String value) {
+
+        if (value == null) {
+            return "";
+        }
+
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String field(Map<String, Integer> header, List<String> fields, String column) {
+
+        Integer index = header.get(column);
+
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+
+        return fields.get(index);
+    }
+
+    private static long quotes(String line) {
+        return line.chars().filter(c -> c == '"').count();
+    }
+
+    static List<String> split(String line) {
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+
+        fields.add(field.toString());
+
+        return fields;
+    }
+}
@@ -1,8 +1,10 @@
 package dev.deyve.productapi.parsers;
 
+import dev.deyve.productapi.dtos.ProductChangeDTO;
 import dev.deyve.productapi.dtos.ProductDTO;
 import dev.deyve.productapi.models.Product;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
@@ -29,4 +31,26 @@ public class ProductParser {
                 .price(product.getPrice())
                 .build();
     }
+
+    public static ProductChangeDTO toProductChangeDTO(Product product, ProductChangeDTO.Operation operation) {
+
+        return ProductChangeDTO.builder()
+                .id(product.getExternalId())
+                .operation(operation)
+                .name(product.getName())
+                .description(product.getDescription())
+                .price(product.getPrice())
+                .version(product.getVersion())
+                .changedAt(LocalDateTime.now())
+                .build();
+    }
+
+    public static ProductChangeDTO toDeletedChangeDTO(UUID id) {
+
+        return ProductChangeDTO.builder()
+                .id(id)
+                .operation(ProductChangeDTO.Operation.DELETED)
+                .changedAt(LocalDateTime.now())
+                .build();
+    }
 }
@@ -0,0 +1,48 @@
+package dev.deyve.productapi.parsers;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Search Query Parser
+ */
+public class SearchQueryParser {
+
+    private static final String TOKEN_SEPARATOR = "[^\\p{L}\\p{N}]+";
+
+    /**
+     * Turns free text into a PostgreSQL tsquery where every term must match as a case-insensitive prefix.
+     * Anything other than letters and digits is dropped, so user input can never break the tsquery syntax.
+     *
+     * @param q free text
+     * @return tsquery such as "smart:* & pho:*", or null when the text has no searchable term
+     */
+    public static String toPrefixQuery(String q) {
+
+        String query = toTerms(q).stream()
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+
+        return query.isEmpty() ? null : query;
+    }
+
+    /**
+     * Lower-cased runs of letters and digits, the terms of {@link #toPrefixQuery} and, close to the 'simple'
+     * text search configuration, the words a text is indexed by.
+     *
+     * @param text free text
+     * @return terms in order, duplicates kept; empty for null
+     */
+    public static List<String> toTerms(String text) {
+
+        if (text == null) {
+            return List.of();
+        }
+
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split(TOKEN_SEPARATOR))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,27 @@
+package dev.deyve.productapi.repositories;
+
+import java.math.BigDecimal;
+
+/**
+ * Price Bucket
+ * <p>
+ * One row of {@link ProductRepository#facetSearch}: the hits of one price bucket, with the price range of
+ * all the hits repeated on every row.
+ */
+public interface PriceBucket {
+
+    int getBucket();
+
+    long getCount();
+
+    BigDecimal getMinPrice();
+
+    BigDecimal getMaxPrice();
+
+    BigDecimal getTotal();
+
+    BigDecimal getLow();
+
+    BigDecimal getHigh();
+
+}
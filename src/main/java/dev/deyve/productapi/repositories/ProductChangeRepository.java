@@ -0,0 +1,79 @@
+package dev.deyve.productapi.repositories;
+
+import dev.deyve.productapi.dtos.ProductChangeDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Product Change Repository
+ * <p>
+ * Plain JDBC over the product_change outbox: rows are only appended and read in id order, and
+ * appends are batched in the transaction of the product write.
+ */
+@Repository
+public class ProductChangeRepository {
+
+    /**
+     * Advisory lock taken by every append until its transaction ends. Without it a transaction holding
+     * a lower id could commit after a reader moved past a higher one, and its change would be skipped.
+     */
+    static final long APPEND_LOCK = 7_080_111_100L;
+
+    private static final String INSERT = "insert into product_change (external_id, operation, name, description, price, version, changed_at)"
+            + " values (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final RowMapper<ProductChangeDTO> ROW_MAPPER = (rs, rowNum) -> ProductChangeDTO.builder()
+            .sequence(rs.getLong("id"))
+            .id(rs.getObject("external_id", UUID.class))
+            .operation(ProductChangeDTO.Operation.valueOf(rs.getString("operation")))
+            .name(rs.getString("name"))
+            .description(rs.getString("description"))
+            .price(rs.getBigDecimal("price"))
+            .version(rs.getObject("version", Long.class))
+            .changedAt(rs.getTimestamp("changed_at").toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductChangeRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Must run inside the transaction of the product write.
+     */
+    public void append(List<ProductChangeDTO> changes) {
+
+        jdbcTemplate.query("select pg_advisory_xact_lock(?)", rs -> null, APPEND_LOCK);
+
+        jdbcTemplate.batchUpdate(INSERT, changes, changes.size(), (ps, change) -> {
+            ps.setObject(1, change.getId());
+            ps.setString(2, change.getOperation().name());
+            ps.setString(3, change.getName());
+            ps.setString(4, change.getDescription());
+            ps.setBigDecimal(5, change.getPrice());
+            ps.setObject(6, change.getVersion());
+            ps.setTimestamp(7, Timestamp.valueOf(change.getChangedAt()));
+        });
+    }
+
+    public List<ProductChangeDTO> findAfter(long since, int limit) {
+
+        return jdbcTemplate.query("select * from product_change where id > ? order by id limit ?", ROW_MAPPER, since, limit);
+    }
+
+    /**
+     * Newest sequence, 0 for an empty log; a primary key lookup.
+     */
+    public long lastSequence() {
+
+        Long last = jdbcTemplate.queryForObject("select max(id) from product_change", Long.class);
+
+        return last == null ? 0 : last;
+    }
+}
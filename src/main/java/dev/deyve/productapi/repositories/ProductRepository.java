@@ -1,22 +1,150 @@
 package dev.deyve.productapi.repositories;
 
 import dev.deyve.productapi.models.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
 
 /**
  * Product Repository
  */
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    /**
+     * Document matched by the full-text search; backed by the idx_product_search GIN index.
+     */
+    String SEARCH_DOCUMENT = "to_tsvector('simple', coalesce(p.name, '') || ' ' || coalesce(p.description, ''))";
+
+    String SEARCH_PREDICATE = "p.price between :minPrice and :maxPrice and " + SEARCH_DOCUMENT + " @@ to_tsquery('simple', :query)";
+
+    String SUMMARY_COLUMNS = "count(*) as count, max(p.updated_at) as lastUpdatedAt, max(cast(p.external_id as text)) as lastId";
+
+    /**
+     * Single statement update: bumps the version and returns the new row, see {@link #update} and {@link #updateVersion}.
+     */
+    String UPDATE_PRODUCT = "update product set name = :name, description = :description, price = :price,"
+            + " updated_at = :updatedAt, version = version + 1 where external_id = :externalId";
+
     Optional<Product> findByExternalId(UUID uuid);
 
-    @Query("select p from Product p where p.price between ?1 and ?2 and (p.name like %?3% or p.description like %?4%)")
-    List<Product> findByPriceBetweenAndNameContainingAndDescriptionContaining(BigDecimal min_price, BigDecimal max_price, String name, String description);
+    boolean existsByExternalId(UUID uuid);
+
+    List<Product> findByExternalIdIn(Collection<UUID> uuids);
+
+    @Query("select p.externalId from Product p where p.externalId in ?1")
+    List<UUID> findExternalIdsIn(Collection<UUID> uuids);
+
+    /**
+     * Deletes in a single statement, without loading the entities first.
+     */
+    @Modifying
+    @Query("delete from Product p where p.externalId in ?1")
+    int deleteByExternalIdIn(Collection<UUID> uuids);
+
+    /**
+     * Hibernate takes the native update for a read, so the row it returns is kept out of the second-level
+     * cache; see {@link dev.deyve.productapi.caches.ProductCacheInvalidator}.
+     */
+    @QueryHints(@QueryHint(name = HINT_CACHE_MODE, value = "IGNORE"))
+    @Query(value = UPDATE_PRODUCT + " returning *", nativeQuery = true)
+    Optional<Product> update(@Param("externalId") UUID externalId, @Param("name") String name, @Param("description") String description,
+                             @Param("price") BigDecimal price, @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Same as {@link #update}, only when the row is still at the expected version.
+     */
+    @QueryHints(@QueryHint(name = HINT_CACHE_MODE, value = "IGNORE"))
+    @Query(value = UPDATE_PRODUCT + " and version = :version returning *", nativeQuery = true)
+    Optional<Product> updateVersion(@Param("externalId") UUID externalId, @Param("version") long version, @Param("name") String name,
+                                    @Param("description") String description, @Param("price") BigDecimal price,
+                                    @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("delete from Product p where p.externalId = ?1")
+    int deleteByExternalId(UUID uuid);
+
+    @Modifying
+    @Query("delete from Product p where p.externalId = ?1 and p.version = ?2")
+    int deleteByExternalIdAndVersion(UUID uuid, long version);
+
+    /**
+     * First page of the keyset pagination, ordered by the unique external_id index. Query cached.
+     */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<Product> findAllByOrderByExternalIdAsc(Pageable pageable);
+
+    /**
+     * Next page of the keyset pagination: seeks past the cursor instead of using an offset. Query cached.
+     */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<Product> findByExternalIdGreaterThanOrderByExternalIdAsc(UUID after, Pageable pageable);
+
+    /**
+     * Streams every product from a server-side cursor. Must be consumed inside a transaction. Bypasses the
+     * second-level cache, which a full scan would only churn.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")})
+    @Query("select p from Product p")
+    Stream<Product> streamAll();
+
+    /**
+     * Products updated since a time, for the incremental refresh of the catalog snapshot. Bypasses the
+     * second-level cache like {@link #streamAll}.
+     */
+    @QueryHints(@QueryHint(name = HINT_CACHE_MODE, value = "IGNORE"))
+    @Query("select p from Product p where p.updatedAt >= ?1 order by p.updatedAt, p.externalId")
+    List<Product> findUpdatedSince(LocalDateTime since);
+
+    /**
+     * Full-text search ranked by relevance. Query cached; the native query names the product table so
+     * Hibernate knows which writes make a cached result stale.
+     *
+     * @param query tsquery, see {@link dev.deyve.productapi.parsers.SearchQueryParser}
+     */
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_NATIVE_SPACES, value = "product")})
+    @Query(value = "select * from product p where " + SEARCH_PREDICATE
+            + " order by ts_rank(" + SEARCH_DOCUMENT + ", to_tsquery('simple', :query)) desc, p.external_id",
+            nativeQuery = true)
+    List<Product> search(@Param("query") String query, @Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice);
+
+    /**
+     * Price histogram of the search hits in one scan: the window functions spread the range of all the
+     * hits to every row, so the buckets can be cut without a second query.
+     */
+    @Query(value = "select case when h.high = h.low then 1 else least(width_bucket(h.price, h.low, h.high, :buckets), :buckets) end as bucket,"
+            + " count(*) as count, min(h.price) as minPrice, max(h.price) as maxPrice, sum(h.price) as total,"
+            + " min(h.low) as low, min(h.high) as high"
+            + " from (select p.price, min(p.price) over () as low, max(p.price) over () as high from product p where " + SEARCH_PREDICATE + ") h"
+            + " group by 1 order by 1", nativeQuery = true)
+    List<PriceBucket> facetSearch(@Param("query") String query, @Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice,
+                                  @Param("buckets") int buckets);
+
+    @Query(value = "select " + SUMMARY_COLUMNS + " from product p where " + SEARCH_PREDICATE, nativeQuery = true)
+    ProductsSummary summarizeSearch(@Param("query") String query, @Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice);
+
+    @Query(value = "select " + SUMMARY_COLUMNS + " from (select external_id, updated_at from product"
+            + " order by external_id limit :limit) p", nativeQuery = true)
+    ProductsSummary summarizeFirstPage(@Param("limit") int limit);
+
+    @Query(value = "select " + SUMMARY_COLUMNS + " from (select external_id, updated_at from product"
+            + " where external_id > :after order by external_id limit :limit) p", nativeQuery = true)
+    ProductsSummary summarizePageAfter(@Param("after") UUID after, @Param("limit") int limit);
 
 }
@@ -0,0 +1,61 @@
+package dev.deyve.productapi.repositories;
+
+import dev.deyve.productapi.models.Product;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Products Summary
+ * <p>
+ * Aggregate of a list or search result, cheap enough to decide a conditional GET without loading rows.
+ */
+public interface ProductsSummary {
+
+    long getCount();
+
+    LocalDateTime getLastUpdatedAt();
+
+    /**
+     * Highest external id of the result, so a page that loses a row and pulls in the next one changes too.
+     */
+    String getLastId();
+
+    /**
+     * Same summary as the aggregate queries, computed from rows that are already loaded.
+     */
+    static ProductsSummary of(List<Product> products) {
+
+        LocalDateTime lastUpdatedAt = products.stream()
+                .map(Product::getUpdatedAt)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .orElse(null);
+
+        String lastId = products.stream()
+                .map(product -> product.getExternalId().toString())
+                .max(Comparator.naturalOrder())
+                .orElse(null);
+
+        return new ProductsSummary() {
+
+            @Override
+            public long getCount() {
+                return products.size();
+            }
+
+            @Override
+            public LocalDateTime getLastUpdatedAt() {
+                return lastUpdatedAt;
+            }
+
+            @Override
+            public String getLastId() {
+                return lastId;
+            }
+        };
+    }
+
+}
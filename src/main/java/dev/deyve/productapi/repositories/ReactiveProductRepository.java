@@ -0,0 +1,49 @@
+package dev.deyve.productapi.repositories;
+
+import dev.deyve.productapi.models.Product;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static dev.deyve.productapi.repositories.ProductRepository.SEARCH_DOCUMENT;
+import static dev.deyve.productapi.repositories.ProductRepository.SEARCH_PREDICATE;
+
+/**
+ * Reactive Product Repository
+ * <p>
+ * R2DBC access to the product table for the reactive profile, with the same queries and indexes as
+ * {@link ProductRepository}. Rows are mapped to {@link Product} by column name; the Flux results are
+ * read from the connection as the subscriber requests them.
+ */
+public interface ReactiveProductRepository extends R2dbcRepository<Product, Long> {
+
+    @Query("select * from product p where p.external_id = :externalId")
+    Mono<Product> findByExternalId(@Param("externalId") UUID externalId);
+
+    /**
+     * First page of the keyset pagination.
+     */
+    @Query("select * from product p order by p.external_id limit :limit")
+    Flux<Product> findFirstPage(@Param("limit") int limit);
+
+    /**
+     * Next page of the keyset pagination: seeks past the cursor instead of using an offset.
+     */
+    @Query("select * from product p where p.external_id > :after order by p.external_id limit :limit")
+    Flux<Product> findPageAfter(@Param("after") UUID after, @Param("limit") int limit);
+
+    /**
+     * Full-text search ranked by relevance.
+     *
+     * @param query tsquery, see {@link dev.deyve.productapi.parsers.SearchQueryParser}
+     */
+    @Query("select * from product p where " + SEARCH_PREDICATE
+            + " order by ts_rank(" + SEARCH_DOCUMENT + ", to_tsquery('simple', :query)) desc, p.external_id")
+    Flux<Product> search(@Param("query") String query, @Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice);
+
+}
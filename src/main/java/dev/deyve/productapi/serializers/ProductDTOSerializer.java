@@ -0,0 +1,25 @@
+package dev.deyve.productapi.serializers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import dev.deyve.productapi.dtos.ProductDTO;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * ProductDTO Serializer
+ */
+@JsonComponent
+public class ProductDTOSerializer extends StdSerializer<ProductDTO> {
+
+    public ProductDTOSerializer() {
+        super(ProductDTO.class);
+    }
+
+    @Override
+    public void serialize(ProductDTO value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        ProductJsonWriter.write(generator, value);
+    }
+}
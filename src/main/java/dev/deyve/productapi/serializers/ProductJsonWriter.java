@@ -0,0 +1,100 @@
+package dev.deyve.productapi.serializers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import dev.deyve.productapi.dtos.ProductDTO;
+import dev.deyve.productapi.models.Product;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Product Json Writer
+ * <p>
+ * Writes the public product shape, {"id", "name", "description", "price"}, straight to a generator: field
+ * names are pre-encoded and the id is formatted into a per-thread buffer, so the only garbage left per
+ * product is what the generator itself needs. Used by the serializers and by the streaming endpoints.
+ */
+public final class ProductJsonWriter {
+
+    private static final SerializedString ID = new SerializedString("id");
+
+    private static final SerializedString NAME = new SerializedString("name");
+
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+
+    private static final SerializedString PRICE = new SerializedString("price");
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<char[]> UUID_BUFFER = ThreadLocal.withInitial(() -> new char[36]);
+
+    private ProductJsonWriter() {
+    }
+
+    public static void write(JsonGenerator generator, Product product) throws IOException {
+        write(generator, product, product.getExternalId(), product.getName(), product.getDescription(), product.getPrice());
+    }
+
+    public static void write(JsonGenerator generator, ProductDTO productDTO) throws IOException {
+        write(generator, productDTO, productDTO.getId(), productDTO.getName(), productDTO.getDescription(), productDTO.getPrice());
+    }
+
+    private static void write(JsonGenerator generator, Object value, UUID id, String name, String description, BigDecimal price)
+            throws IOException {
+
+        generator.writeStartObject(value);
+
+        generator.writeFieldName(ID);
+        if (id == null) {
+            generator.writeNull();
+        } else {
+            char[] buffer = UUID_BUFFER.get();
+            format(id, buffer);
+            generator.writeString(buffer, 0, buffer.length);
+        }
+
+        generator.writeFieldName(NAME);
+        generator.writeString(name);
+
+        generator.writeFieldName(DESCRIPTION);
+        generator.writeString(description);
+
+        generator.writeFieldName(PRICE);
+        if (price == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(price);
+        }
+
+        generator.writeEndObject();
+    }
+
+    /**
+     * Same text as UUID#toString, without the intermediate byte[] and String.
+     */
+    static void format(UUID id, char[] buffer) {
+
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+
+        hex(msb >>> 32, buffer, 0, 8);
+        buffer[8] = '-';
+        hex(msb >>> 16, buffer, 9, 4);
+        buffer[13] = '-';
+        hex(msb, buffer, 14, 4);
+        buffer[18] = '-';
+        hex(lsb >>> 48, buffer, 19, 4);
+        buffer[23] = '-';
+        hex(lsb, buffer, 24, 12);
+    }
+
+    private static void hex(long value, char[] buffer, int offset, int digits) {
+
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = HEX[(int) (value & 0xf)];
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package dev.deyve.productapi.serializers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import dev.deyve.productapi.models.Product;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * Product Serializer
+ * <p>
+ * An entity that reaches Jackson is written in the public ProductDTO shape, never with its internal id or version.
+ */
+@JsonComponent
+public class ProductSerializer extends StdSerializer<Product> {
+
+    public ProductSerializer() {
+        super(Product.class);
+    }
+
+    @Override
+    public void serialize(Product value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        ProductJsonWriter.write(generator, value);
+    }
+}
@@ -0,0 +1,355 @@
+package dev.deyve.productapi.services;
+
+import dev.deyve.productapi.caches.ProductCacheInvalidator;
+import dev.deyve.productapi.configurations.BatchProperties;
+import dev.deyve.productapi.dtos.BatchItemResultDTO;
+import dev.deyve.productapi.dtos.BatchResultDTO;
+import dev.deyve.productapi.dtos.ProductChangeDTO;
+import dev.deyve.productapi.dtos.ProductDTO;
+import dev.deyve.productapi.models.Product;
+import dev.deyve.productapi.parsers.ProductParser;
+import dev.deyve.productapi.repositories.ProductRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static dev.deyve.productapi.configurations.CacheConfiguration.PRODUCTS_CACHE;
+import static dev.deyve.productapi.parsers.ProductParser.toProduct;
+import static dev.deyve.productapi.parsers.ProductParser.toProductChangeDTO;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.NO_CONTENT;
+import static org.springframework.http.HttpStatus.OK;
+
+/**
+ * Product Batch Service
+ * <p>
+ * Writes products in chunks of product.batch.chunk-size, one transaction per chunk, so Hibernate
+ * can group the statements into JDBC batches. A failing chunk does not roll back the chunks written
+ * before it. Saves and updates retry it in halves down to single items, so only the items the database
+ * rejects fail and the rest of their chunk is still written.
+ */
+@Log4j2
+@Service
+public class ProductBatchService {
+
+    private final ProductRepository productRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CacheManager cacheManager;
+
+    private final BatchProperties batchProperties;
+
+    private final ProductChangeService productChangeService;
+
+    private final ProductCacheInvalidator productCacheInvalidator;
+
+    public ProductBatchService(ProductRepository productRepository, TransactionTemplate transactionTemplate,
+                               CacheManager cacheManager, BatchProperties batchProperties, ProductChangeService productChangeService,
+                               ProductCacheInvalidator productCacheInvalidator) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.batchProperties = batchProperties;
+        this.productChangeService = productChangeService;
+        this.productCacheInvalidator = productCacheInvalidator;
+    }
+
+    /**
+     * Save Products
+     *
+     * @param productDTOs List<ProductDTO>
+     * @return BatchResultDTO
+     */
+    public BatchResultDTO saveProducts(List<ProductDTO> productDTOs) {
+
+        BatchItemResultDTO[] results = new BatchItemResultDTO[productDTOs.size()];
+
+        for (int from = 0; from < productDTOs.size(); from += batchProperties.getChunkSize()) {
+
+            int to = Math.min(from + batchProperties.getChunkSize(), productDTOs.size());
+
+            List<Integer> indexes = new ArrayList<>(to - from);
+
+            for (int index = from; index < to; index++) {
+                if (productDTOs.get(index) == null) {
+                    results[index] = result(index, null, BAD_REQUEST, "Product is required");
+                } else {
+                    indexes.add(index);
+                }
+            }
+
+            if (!indexes.isEmpty()) {
+                saveChunk(productDTOs, indexes, results);
+            }
+        }
+
+        return toBatchResult(results);
+    }
+
+    /**
+     * Entities are built anew for each attempt, as a failed one leaves ids on them.
+     */
+    private void saveChunk(List<ProductDTO> productDTOs, List<Integer> indexes, BatchItemResultDTO[] results) {
+
+        List<Product> products = indexes.stream()
+                .map(index -> toProduct(productDTOs.get(index)))
+                .collect(Collectors.toList());
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+
+                productRepository.saveAll(products);
+
+                productChangeService.recordChanges(products.stream()
+                        .map(product -> toProductChangeDTO(product, ProductChangeDTO.Operation.CREATED))
+                        .collect(Collectors.toList()));
+                productCacheInvalidator.invalidate(products);
+            });
+
+            for (int i = 0; i < products.size(); i++) {
+                results[indexes.get(i)] = result(indexes.get(i), products.get(i).getExternalId(), CREATED, null);
+            }
+        } catch (RuntimeException e) {
+
+            if (retryInHalves(indexes, e)) {
+                log.debug("Batch save of {} items from {} failed, retrying in halves", indexes.size(), indexes.get(0), e);
+
+                saveChunk(productDTOs, indexes.subList(0, indexes.size() / 2), results);
+                saveChunk(productDTOs, indexes.subList(indexes.size() / 2, indexes.size()), results);
+                return;
+            }
+
+            log.warn("Batch save of {} items from {} failed", indexes.size(), indexes.get(0), e);
+
+            for (Integer index : indexes) {
+                results[index] = result(index, null, statusOf(e), causeOf(e));
+            }
+        }
+    }
+
+    /**
+     * Update Products
+     *
+     * @param productDTOs List<ProductDTO>, each one identified by its id
+     * @return BatchResultDTO
+     */
+    public BatchResultDTO updateProducts(List<ProductDTO> productDTOs) {
+
+        BatchItemResultDTO[] results = new BatchItemResultDTO[productDTOs.size()];
+
+        for (int from = 0; from < productDTOs.size(); from += batchProperties.getChunkSize()) {
+
+            int to = Math.min(from + batchProperties.getChunkSize(), productDTOs.size());
+
+            List<Integer> indexes = new ArrayList<>(to - from);
+
+            for (int index = from; index < to; index++) {
+                ProductDTO productDTO = productDTOs.get(index);
+                if (productDTO == null || productDTO.getId() == null) {
+                    results[index] = result(index, null, BAD_REQUEST, "Product id is required");
+                } else {
+                    indexes.add(index);
+                }
+            }
+
+            if (!indexes.isEmpty()) {
+                updateChunk(productDTOs, indexes, results);
+            }
+        }
+
+        return toBatchResult(results);
+    }
+
+    private void updateChunk(List<ProductDTO> productDTOs, List<Integer> indexes, BatchItemResultDTO[] results) {
+
+        Set<UUID> ids = indexes.stream()
+                .map(index -> productDTOs.get(index).getId())
+                .collect(Collectors.toSet());
+
+        try {
+            Set<UUID> updated = transactionTemplate.execute(status -> {
+
+                Map<UUID, Product> products = productRepository.findByExternalIdIn(ids).stream()
+                        .collect(Collectors.toMap(Product::getExternalId, Function.identity()));
+
+                for (Integer index : indexes) {
+                    ProductDTO productDTO = productDTOs.get(index);
+                    Product product = products.get(productDTO.getId());
+                    if (product != null) {
+                        product.setName(productDTO.getName());
+                        product.setDescription(productDTO.getDescription());
+                        product.setPrice(productDTO.getPrice());
+                    }
+                }
+
+                // versions and timestamps are only bumped by the flush
+                productRepository.flush();
+
+                productChangeService.recordChanges(products.values().stream()
+                        .map(product -> toProductChangeDTO(product, ProductChangeDTO.Operation.UPDATED))
+                        .collect(Collectors.toList()));
+                productCacheInvalidator.invalidate(products.values());
+
+                return products.keySet();
+            });
+
+            evict(ids);
+
+            for (Integer index : indexes) {
+                UUID id = productDTOs.get(index).getId();
+                results[index] = updated.contains(id)
+                        ? result(index, id, OK, null)
+                        : result(index, id, NOT_FOUND, "Product Not Found");
+            }
+        } catch (RuntimeException e) {
+
+            if (retryInHalves(indexes, e)) {
+                log.debug("Batch update of {} items from {} failed, retrying in halves", indexes.size(), indexes.get(0), e);
+
+                updateChunk(productDTOs, indexes.subList(0, indexes.size() / 2), results);
+                updateChunk(productDTOs, indexes.subList(indexes.size() / 2, indexes.size()), results);
+                return;
+            }
+
+            log.warn("Batch update of {} items from {} failed", indexes.size(), indexes.get(0), e);
+
+            HttpStatus status = e instanceof OptimisticLockingFailureException ? CONFLICT : statusOf(e);
+
+            for (Integer index : indexes) {
+                results[index] = result(index, productDTOs.get(index).getId(), status, causeOf(e));
+            }
+        }
+    }
+
+    /**
+     * Delete Products
+     *
+     * @param ids List<UUID>
+     * @return BatchResultDTO
+     */
+    public BatchResultDTO deleteProducts(List<UUID> ids) {
+
+        BatchItemResultDTO[] results = new BatchItemResultDTO[ids.size()];
+
+        for (int from = 0; from < ids.size(); from += batchProperties.getChunkSize()) {
+
+            int to = Math.min(from + batchProperties.getChunkSize(), ids.size());
+
+            Set<UUID> chunk = new HashSet<>(ids.subList(from, to));
+            chunk.remove(null);
+
+            try {
+                Set<UUID> deleted = chunk.isEmpty() ? Set.of() : transactionTemplate.execute(status -> {
+
+                    List<UUID> existing = productRepository.findExternalIdsIn(chunk);
+
+                    if (!existing.isEmpty()) {
+                        productRepository.deleteByExternalIdIn(existing);
+
+                        productChangeService.recordChanges(existing.stream()
+                                .map(ProductParser::toDeletedChangeDTO)
+                                .collect(Collectors.toList()));
+                        productCacheInvalidator.invalidateDeleted(existing);
+                    }
+
+                    return new HashSet<>(existing);
+                });
+
+                evict(chunk);
+
+                for (int index = from; index < to; index++) {
+                    UUID id = ids.get(index);
+                    if (id == null) {
+                        results[index] = result(index, null, BAD_REQUEST, "Product id is required");
+                    } else if (deleted.remove(id)) {
+                        results[index] = result(index, id, NO_CONTENT, null);
+                    } else {
+                        results[index] = result(index, id, NOT_FOUND, "Product Not Found");
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Batch delete of items {} to {} failed", from, to - 1, e);
+
+                for (int index = from; index < to; index++) {
+                    results[index] = result(index, ids.get(index), INTERNAL_SERVER_ERROR, causeOf(e));
+                }
+            }
+        }
+
+        return toBatchResult(results);
+    }
+
+    private void evict(Set<UUID> ids) {
+
+        Cache cache = cacheManager.getCache(PRODUCTS_CACHE);
+
+        if (cache != null) {
+            ids.forEach(cache::evict);
+        }
+    }
+
+    private static BatchItemResultDTO result(int index, UUID id, HttpStatus status, String message) {
+
+        return BatchItemResultDTO.builder()
+                .index(index)
+                .id(id)
+                .status(status.value())
+                .message(message)
+                .build();
+    }
+
+    /**
+     * Whether the items of a failed chunk should be tried again in halves: not when it is down to one, nor
+     * when no connection could be had, which would fail every half the same way.
+     */
+    private static boolean retryInHalves(List<Integer> indexes, RuntimeException e) {
+        return indexes.size() > 1 && !(e instanceof CannotCreateTransactionException);
+    }
+
+    /**
+     * Values the database refuses, like a name too long or a price out of range, are the client's to fix.
+     */
+    private static HttpStatus statusOf(RuntimeException e) {
+        return e instanceof DataIntegrityViolationException ? BAD_REQUEST : INTERNAL_SERVER_ERROR;
+    }
+
+    private static String causeOf(RuntimeException e) {
+
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+
+        return cause.getMessage();
+    }
+
+    private static BatchResultDTO toBatchResult(BatchItemResultDTO[] results) {
+
+        int failed = (int) Arrays.stream(results).filter(result -> result.getStatus() >= 400).count();
+
+        return BatchResultDTO.builder()
+                .succeeded(results.length - failed)
+                .failed(failed)
+                .items(Arrays.asList(results))
+                .build();
+    }
+}
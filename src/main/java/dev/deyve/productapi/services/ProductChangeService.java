@@ -0,0 +1,165 @@
+package dev.deyve.productapi.services;
+
+import dev.deyve.productapi.configurations.ChangeProperties;
+import dev.deyve.productapi.dtos.ProductChangeDTO;
+import dev.deyve.productapi.repositories.ProductChangeRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Product Change Service
+ * <p>
+ * Records every product write in the product_change outbox, in the same transaction, and serves the
+ * log to consumers by cursor. A request with nothing to read waits: it is answered right after the
+ * next commit on this instance, or by the periodic check for commits made elsewhere.
+ */
+@Log4j2
+@Service
+public class ProductChangeService {
+
+    private final ProductChangeRepository productChangeRepository;
+
+    private final ThreadPoolTaskScheduler changeScheduler;
+
+    private final ChangeProperties changeProperties;
+
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    public ProductChangeService(ProductChangeRepository productChangeRepository,
+                                @Qualifier("changeScheduler") ThreadPoolTaskScheduler changeScheduler, ChangeProperties changeProperties) {
+        this.productChangeRepository = productChangeRepository;
+        this.changeScheduler = changeScheduler;
+        this.changeProperties = changeProperties;
+    }
+
+    @PostConstruct
+    void schedule() {
+        changeScheduler.scheduleWithFixedDelay(this::dispatch, changeProperties.getPollInterval());
+    }
+
+    /**
+     * Record Changes
+     *
+     * @param changes List<ProductChangeDTO>
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanges(List<ProductChangeDTO> changes) {
+
+        if (changes.isEmpty() || !changeProperties.isEnabled()) {
+            return;
+        }
+
+        productChangeRepository.append(changes);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                changeScheduler.execute(ProductChangeService.this::dispatch);
+            }
+        });
+    }
+
+    /**
+     * Find Changes
+     *
+     * @param since long cursor, the sequence of the last change already read
+     * @param limit Integer, bounded by product.changes.max-limit
+     * @param wait  Integer seconds to wait for a change, bounded by product.changes.max-wait
+     * @return DeferredResult with the changes, and the cursor to continue from in the next header
+     */
+    public DeferredResult<ResponseEntity<List<ProductChangeDTO>>> findChanges(long since, Integer limit, Integer wait) {
+
+        Duration timeout = wait == null
+                ? changeProperties.getMaxWait()
+                : Duration.ofSeconds(Math.max(0, Math.min(wait, changeProperties.getMaxWait().toSeconds())));
+
+        Waiter waiter = new Waiter(since, limit(limit), new DeferredResult<>(timeout.toMillis(), toResponse(since, List.of())));
+
+        if (waiter.complete(productChangeRepository.findAfter(since, waiter.limit))) {
+            return waiter.result;
+        }
+
+        if (timeout.isZero()) {
+            waiter.result.setResult(toResponse(since, List.of()));
+            return waiter.result;
+        }
+
+        waiter.result.onCompletion(() -> waiters.remove(waiter));
+        waiters.add(waiter);
+
+        return waiter.result;
+    }
+
+    /**
+     * Answers the waiting requests that are behind the log; one max(id) lookup when nothing changed.
+     */
+    private void dispatch() {
+
+        if (waiters.isEmpty()) {
+            return;
+        }
+
+        try {
+            long last = productChangeRepository.lastSequence();
+
+            for (Waiter waiter : waiters) {
+                if (waiter.since < last && waiter.complete(productChangeRepository.findAfter(waiter.since, waiter.limit))) {
+                    waiters.remove(waiter);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Change feed dispatch failed", e);
+        }
+    }
+
+    private int limit(Integer limit) {
+
+        if (limit == null) {
+            return changeProperties.getDefaultLimit();
+        }
+
+        return Math.max(1, Math.min(limit, changeProperties.getMaxLimit()));
+    }
+
+    private static ResponseEntity<List<ProductChangeDTO>> toResponse(long since, List<ProductChangeDTO> changes) {
+
+        long next = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSequence();
+
+        return ResponseEntity.ok()
+                .header("next", String.valueOf(next))
+                .body(changes);
+    }
+
+    private static final class Waiter {
+
+        private final long since;
+
+        private final int limit;
+
+        private final DeferredResult<ResponseEntity<List<ProductChangeDTO>>> result;
+
+        private Waiter(long since, int limit, DeferredResult<ResponseEntity<List<ProductChangeDTO>>> result) {
+            this.since = since;
+            this.limit = limit;
+            this.result = result;
+        }
+
+        private boolean complete(List<ProductChangeDTO> changes) {
+            return !changes.isEmpty() && result.setResult(toResponse(since, changes));
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package dev.deyve.productapi.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import dev.deyve.productapi.configurations.BatchProperties;
+import dev.deyve.productapi.configurations.ImportProperties;
+import dev.deyve.productapi.dtos.BatchItemResultDTO;
+import dev.deyve.productapi.dtos.BatchResultDTO;
+import dev.deyve.productapi.dtos.ImportErrorDTO;
+import dev.deyve.productapi.dtos.ImportResultDTO;
+import dev.deyve.productapi.dtos.ImportStatusDTO;
+import dev.deyve.productapi.dtos.ProductDTO;
+import dev.deyve.productapi.parsers.ProductCsvParser;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Product Import Service
+ * <p>
+ * The request thread parses the upload line by line and hands chunks to a writer thread through a
+ * bounded queue. When the database falls behind the queue fills up, the reader blocks and stops
+ * pulling bytes off the socket, so at most queue-capacity chunks are held in memory. Rejected lines and
+ * the counters after each chunk go to a listener as they happen. When reading fails, the chunks still
+ * queued are dropped: the writer is interrupted, and waited for, before the failure reaches the caller.
+ */
+@Log4j2
+@Service
+public class ProductImportService {
+
+    private static final List<ImportRow> END_OF_INPUT = new ArrayList<>(0);
+
+    private final ProductBatchService productBatchService;
+
+    private final ThreadPoolTaskExecutor importExecutor;
+
+    private final ObjectReader productReader;
+
+    private final BatchProperties batchProperties;
+
+    private final ImportProperties importProperties;
+
+    public ProductImportService(ProductBatchService productBatchService, @Qualifier("importExecutor") ThreadPoolTaskExecutor importExecutor,
+                                ObjectMapper objectMapper, BatchProperties batchProperties, ImportProperties importProperties) {
+        this.productBatchService = productBatchService;
+        this.importExecutor = importExecutor;
+        this.productReader = objectMapper.readerFor(ProductDTO.class);
+        this.batchProperties = batchProperties;
+        this.importProperties = importProperties;
+    }
+
+    /**
+     * Import Products
+     *
+     * @param inputStream NDJSON, one product per line, or CSV with a header line
+     * @param contentType application/x-ndjson or text/csv
+     * @return ImportResultDTO
+     * @throws IOException when the upload cannot be read
+     */
+    public ImportResultDTO importProducts(InputStream inputStream, MediaType contentType) throws IOException {
+        return importProducts(inputStream, contentType, status -> {
+        });
+    }
+
+    /**
+     * Import Products, reporting as it goes
+     *
+     * @param inputStream NDJSON, one product per line, or CSV with a header line
+     * @param contentType application/x-ndjson or text/csv
+     * @param listener    called with each ERROR and PROGRESS status, from the request and the writer thread,
+     *                    never both at once; all calls are made before this method returns
+     * @return ImportResultDTO
+     * @throws IOException when the upload cannot be read
+     */
+    public ImportResultDTO importProducts(InputStream inputStream, MediaType contentType, Consumer<ImportStatusDTO> listener)
+            throws IOException {
+
+        boolean csv = contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"));
+        ImportProgress progress = new ImportProgress(importProperties.getMaxReportedErrors(), listener);
+        BlockingQueue<List<ImportRow>> queue = new ArrayBlockingQueue<>(importProperties.getQueueCapacity());
+
+        AtomicBoolean started = new AtomicBoolean();
+        CountDownLatch stopped = new CountDownLatch(1);
+
+        Future<?> writer = importExecutor.submit(() -> {
+            if (started.compareAndSet(false, true)) {
+                try {
+                    write(queue, progress);
+                } finally {
+                    stopped.countDown();
+                }
+            }
+            return null;
+        });
+
+        boolean finished = false;
+
+        try {
+            try (LineNumberReader reader = new LineNumberReader(new InputStreamReader(inputStream, UTF_8))) {
+                read(reader, csv, queue, writer, progress);
+            }
+
+            put(queue, END_OF_INPUT, writer);
+            writer.get();
+            finished = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Import failed", e.getCause());
+        } finally {
+            if (!finished) {
+                stop(writer, started, stopped);
+            }
+        }
+
+        log.info("Import finished: {} rows read, {} imported, {} failed", progress.rows, progress.imported, progress.failed);
+
+        return ImportResultDTO.builder()
+                .rows(progress.rows.get())
+                .imported(progress.imported.get())
+                .failed(progress.failed.get())
+                .errors(progress.errors)
+                .build();
+    }
+
+    /**
+     * Rows are numbered by the line they start on; a CSV row may span several.
+     */
+    private void read(LineNumberReader reader, boolean csv, BlockingQueue<List<ImportRow>> queue, Future<?> writer,
+                      ImportProgress progress) throws IOException, InterruptedException {
+
+        Map<String, Integer> header = null;
+        List<ImportRow> chunk = new ArrayList<>(batchProperties.getChunkSize());
+        long next = 1;
+        String text;
+
+        while ((text = csv ? ProductCsvParser.readRecord(reader) : reader.readLine()) != null) {
+
+            long line = next;
+            next = reader.getLineNumber() + 1;
+
+            if (text.isBlank()) {
+                continue;
+            }
+
+            if (csv && header == null) {
+                header = ProductCsvParser.toHeader(text);
+                continue;
+            }
+
+            progress.rows.incrementAndGet();
+
+            try {
+                ProductDTO productDTO = csv ? ProductCsvParser.toProductDTO(header, text) : productReader.readValue(text);
+                chunk.add(new ImportRow(line, productDTO));
+            } catch (JsonProcessingException e) {
+                progress.fail(line, e.getOriginalMessage());
+            } catch (IllegalArgumentException e) {
+                progress.fail(line, e.getMessage());
+            }
+
+            if (chunk.size() == batchProperties.getChunkSize()) {
+                if (!put(queue, chunk, writer)) {
+                    return;
+                }
+                chunk = new ArrayList<>(batchProperties.getChunkSize());
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            put(queue, chunk, writer);
+        }
+    }
+
+    private void write(BlockingQueue<List<ImportRow>> queue, ImportProgress progress) throws InterruptedException {
+
+        List<ImportRow> chunk;
+
+        while ((chunk = queue.take()) != END_OF_INPUT) {
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+
+            List<ProductDTO> productDTOs = chunk.stream()
+                    .map(row -> row.productDTO)
+                    .collect(Collectors.toList());
+
+            BatchResultDTO batchResult = productBatchService.saveProducts(productDTOs);
+
+            for (BatchItemResultDTO item : batchResult.getItems()) {
+                if (item.getStatus() >= 400) {
+                    progress.fail(chunk.get(item.getIndex()).line, item.getMessage());
+                } else {
+                    progress.imported.incrementAndGet();
+                }
+            }
+
+            log.info("Import progress: {} rows read, {} imported, {} failed", progress.rows, progress.imported, progress.failed);
+
+            progress.report(ImportStatusDTO.builder()
+                    .type(ImportStatusDTO.Type.PROGRESS)
+                    .rows(progress.rows.get())
+                    .imported(progress.imported.get())
+                    .failed(progress.failed.get())
+                    .build());
+        }
+    }
+
+    /**
+     * Interrupts the writer, which then stops between chunks, and waits for the chunk it is writing, so no
+     * row is written and no listener called once the import has failed. A writer that never started never will.
+     */
+    private static void stop(Future<?> writer, AtomicBoolean started, CountDownLatch stopped) {
+
+        writer.cancel(true);
+
+        if (started.compareAndSet(false, true)) {
+            return;
+        }
+
+        boolean interrupted = false;
+
+        while (true) {
+            try {
+                stopped.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Blocks while the queue is full, which is what pushes back on the upload, but gives up if the
+     * writer has died so the request thread never waits forever.
+     *
+     * @return false when the writer is gone and reading should stop
+     */
+    private static boolean put(BlockingQueue<List<ImportRow>> queue, List<ImportRow> chunk, Future<?> writer) throws InterruptedException {
+
+        while (!queue.offer(chunk, 1, TimeUnit.SECONDS)) {
+            if (writer.isDone()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static class ImportRow {
+
+        private final long line;
+
+        private final ProductDTO productDTO;
+
+        private ImportRow(long line, ProductDTO productDTO) {
+            this.line = line;
+            this.productDTO = productDTO;
+        }
+    }
+
+    private static class ImportProgress {
+
+        private final AtomicLong rows = new AtomicLong();
+
+        private final AtomicLong imported = new AtomicLong();
+
+        private final AtomicLong failed = new AtomicLong();
+
+        private final List<ImportErrorDTO> errors = Collections.synchronizedList(new ArrayList<>());
+
+        private final int maxReportedErrors;
+
+        private final Consumer<ImportStatusDTO> listener;
+
+        private ImportProgress(int maxReportedErrors, Consumer<ImportStatusDTO> listener) {
+            this.maxReportedErrors = maxReportedErrors;
+            this.listener = listener;
+        }
+
+        private void fail(long line, String message) {
+
+            log.warn("Import line {} rejected: {}", line, message);
+
+            if (failed.incrementAndGet() <= maxReportedErrors) {
+                errors.add(new ImportErrorDTO(line, message));
+            }
+
+            report(ImportStatusDTO.builder()
+                    .type(ImportStatusDTO.Type.ERROR)
+                    .line(line)
+                    .message(message)
+                    .build());
+        }
+
+        private synchronized void report(ImportStatusDTO status) {
+            listener.accept(status);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package dev.deyve.productapi.services;
+
+import dev.deyve.productapi.dtos.ProductDTO;
+import dev.deyve.productapi.repositories.ProductsSummary;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Product List
+ * <p>
+ * A list or search result together with the summary its ETag is derived from.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductList {
+
+    private final List<ProductDTO> products;
+
+    private final ProductsSummary summary;
+
+}
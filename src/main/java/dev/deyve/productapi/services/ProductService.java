@@ -1,48 +1,183 @@
 package dev.deyve.productapi.services;
 
+import dev.deyve.productapi.caches.ProductCacheInvalidator;
+import dev.deyve.productapi.caches.ProductSnapshot;
+import dev.deyve.productapi.caches.ProductSnapshotManager;
+import dev.deyve.productapi.configurations.BatchProperties;
+import dev.deyve.productapi.configurations.PaginationProperties;
+import dev.deyve.productapi.dtos.LookupResultDTO;
+import dev.deyve.productapi.dtos.PriceBucketDTO;
+import dev.deyve.productapi.dtos.PriceFacetsDTO;
 import dev.deyve.productapi.dtos.ProductDTO;
+import dev.deyve.productapi.exceptions.ProductPreconditionFailedException;
 import dev.deyve.productapi.models.Product;
 import dev.deyve.productapi.parsers.ProductParser;
+import dev.deyve.productapi.parsers.SearchQueryParser;
+import dev.deyve.productapi.repositories.PriceBucket;
 import dev.deyve.productapi.repositories.ProductRepository;
+import dev.deyve.productapi.repositories.ProductsSummary;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
 import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static dev.deyve.productapi.configurations.CacheConfiguration.PRODUCTS_CACHE;
+import static dev.deyve.productapi.dtos.ProductChangeDTO.Operation.CREATED;
+import static dev.deyve.productapi.dtos.ProductChangeDTO.Operation.UPDATED;
+import static dev.deyve.productapi.parsers.ProductParser.toDeletedChangeDTO;
 import static dev.deyve.productapi.parsers.ProductParser.toProduct;
+import static dev.deyve.productapi.parsers.ProductParser.toProductChangeDTO;
 import static dev.deyve.productapi.parsers.ProductParser.toProductDTO;
 
 /**
  * Product Service
+ * <p>
+ * With product.snapshot.enabled, pages, searches and single reads are served from the in-memory
+ * {@link ProductSnapshot} once it is built, without running a statement; until then from the database.
  */
 @Log4j2
 @Service
 public class ProductService {
 
+    private static final int DEFAULT_BUCKETS = 10;
+
+    private static final int MAX_BUCKETS = 100;
+
     private final ProductRepository productRepository;
 
-    public ProductService(ProductRepository productRepository) {
+    private final EntityManager entityManager;
+
+    private final PaginationProperties paginationProperties;
+
+    private final ProductChangeService productChangeService;
+
+    private final CacheManager cacheManager;
+
+    private final BatchProperties batchProperties;
+
+    private final ProductCacheInvalidator productCacheInvalidator;
+
+    private final ProductSnapshotManager productSnapshotManager;
+
+    public ProductService(ProductRepository productRepository, EntityManager entityManager, PaginationProperties paginationProperties,
+                          ProductChangeService productChangeService, CacheManager cacheManager, BatchProperties batchProperties,
+                          ProductCacheInvalidator productCacheInvalidator, @Nullable ProductSnapshotManager productSnapshotManager) {
         this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.paginationProperties = paginationProperties;
+        this.productChangeService = productChangeService;
+        this.cacheManager = cacheManager;
+        this.batchProperties = batchProperties;
+        this.productCacheInvalidator = productCacheInvalidator;
+        this.productSnapshotManager = productSnapshotManager;
     }
 
     /**
      * Find Products
      *
-     * @return List<Product>
+     * @param after UUID cursor, the last externalId of the previous page
+     * @param limit page size, bounded by product.pagination.max-limit
+     * @return ProductList
      */
-    public List<ProductDTO> findProducts() {
+    @Transactional(readOnly = true)
+    public ProductList findProducts(UUID after, Integer limit) {
 
-        List<Product> products = productRepository.findAll();
+        ProductSnapshot snapshot = snapshot();
 
-        log.debug("Product: {} ", products);
+        if (snapshot != null) {
+            return toProductList(snapshot.page(after, pageSize(limit)));
+        }
 
-        return products.stream()
-                .map(ProductParser::toProductDTO)
-                .collect(Collectors.toList());
+        Pageable pageable = PageRequest.of(0, pageSize(limit));
+
+        List<Product> products = after == null
+                ? productRepository.findAllByOrderByExternalIdAsc(pageable)
+                : productRepository.findByExternalIdGreaterThanOrderByExternalIdAsc(after, pageable);
+
+        log.debug("Products found: {} ", products.size());
+
+        return toProductList(products);
+    }
+
+    /**
+     * Summarize Products
+     * <p>
+     * Count, last update and last id of the page findProducts would return, without loading it.
+     *
+     * @param after UUID cursor
+     * @param limit page size
+     * @return ProductsSummary
+     */
+    @Transactional(readOnly = true)
+    public ProductsSummary summarizeProducts(UUID after, Integer limit) {
+
+        ProductSnapshot snapshot = snapshot();
+
+        if (snapshot != null) {
+            return ProductsSummary.of(snapshot.page(after, pageSize(limit)));
+        }
+
+        return after == null
+                ? productRepository.summarizeFirstPage(pageSize(limit))
+                : productRepository.summarizePageAfter(after, pageSize(limit));
+    }
+
+    /**
+     * Stream Products
+     * <p>
+     * Hands every product to the consumer as it comes off the database cursor, detaching each
+     * entity afterwards so the persistence context does not grow with the catalog. The entity is
+     * handed over as is, so writers can skip the DTO, see {@link dev.deyve.productapi.serializers.ProductJsonWriter}.
+     *
+     * @param consumer Consumer<Product>, must not keep the entity
+     */
+    @Transactional(readOnly = true)
+    public void streamProducts(Consumer<Product> consumer) {
+
+        try (Stream<Product> products = productRepository.streamAll()) {
+            products.forEach(product -> {
+                consumer.accept(product);
+                entityManager.detach(product);
+            });
+        }
+    }
+
+    /**
+     * Page size findProducts uses for a requested limit.
+     *
+     * @param limit requested page size, null for product.pagination.default-limit
+     * @return limit bounded by 1 and product.pagination.max-limit
+     */
+    public int pageSize(Integer limit) {
+
+        if (limit == null) {
+            return paginationProperties.getDefaultLimit();
+        }
+
+        return Math.max(1, Math.min(limit, paginationProperties.getMaxLimit()));
     }
 
     /**
@@ -51,84 +186,311 @@ public class ProductService {
      * @param productDTO ProductDTO
      * @return ProductDTO
      */
+    @Transactional
     public ProductDTO saveProduct(ProductDTO productDTO) {
 
         Product product = toProduct(productDTO);
 
         Product productSaved = productRepository.save(product);
 
-        log.debug("Product: {} ", productSaved);
+        productChangeService.recordChanges(List.of(toProductChangeDTO(productSaved, CREATED)));
+        productCacheInvalidator.invalidate(List.of(productSaved));
+
+        log.debug("Product saved: id={} ", productSaved.getExternalId());
 
         return toProductDTO(productSaved);
     }
 
     /**
      * Find Product by externalId
+     * <p>
+     * Read-through cached; misses are not cached so a product created later is found right away.
      *
      * @param id UUID
      * @return Product
      */
+    @Cacheable(cacheNames = PRODUCTS_CACHE, key = "#id", unless = "#result == null")
+    @Transactional(readOnly = true)
     public Product findByExternalId(UUID id) {
 
+        ProductSnapshot snapshot = snapshot();
+        Product cached = snapshot == null ? null : snapshot.find(id);
+
+        if (cached != null) {
+            return cached;
+        }
+
         Optional<Product> product = productRepository.findByExternalId(id);
 
-        log.debug("Product: {} ", product);
+        log.debug("Product found: id={} found={} ", id, product.isPresent());
 
         return product.orElse(null);
     }
 
+    /**
+     * Lookup Products
+     * <p>
+     * Serves what it can from the products cache and loads the rest with one IN query per
+     * product.batch.chunk-size ids, caching what it loads.
+     *
+     * @param ids List<UUID>, duplicates allowed
+     * @return LookupResultDTO
+     */
+    @Transactional(readOnly = true)
+    public LookupResultDTO lookupProducts(List<UUID> ids) {
+
+        Cache cache = cacheManager.getCache(PRODUCTS_CACHE);
+
+        Map<UUID, Product> products = new HashMap<>();
+        List<UUID> misses = new ArrayList<>();
+
+        for (UUID id : new LinkedHashSet<>(ids)) {
+            Product product = cache == null ? null : cache.get(id, Product.class);
+            if (product != null) {
+                products.put(id, product);
+            } else {
+                misses.add(id);
+            }
+        }
+
+        for (int from = 0; from < misses.size(); from += batchProperties.getChunkSize()) {
+
+            List<UUID> chunk = misses.subList(from, Math.min(from + batchProperties.getChunkSize(), misses.size()));
+
+            for (Product product : productRepository.findByExternalIdIn(chunk)) {
+                products.put(product.getExternalId(), product);
+                if (cache != null) {
+                    cache.put(product.getExternalId(), product);
+                }
+            }
+        }
+
+        log.debug("Products looked up: {}, cache misses: {}", ids.size(), misses.size());
+
+        List<ProductDTO> productDTOs = new ArrayList<>(ids.size());
+        Set<UUID> missing = new LinkedHashSet<>();
+
+        for (UUID id : ids) {
+            Product product = products.get(id);
+            if (product != null) {
+                productDTOs.add(toProductDTO(product));
+            } else {
+                missing.add(id);
+            }
+        }
+
+        return LookupResultDTO.builder()
+                .products(productDTOs)
+                .missing(new ArrayList<>(missing))
+                .build();
+    }
+
     /**
      * Update Product
+     * <p>
+     * One UPDATE ... RETURNING keyed on externalId: no lookup and no merge before the write.
      *
      * @param id         UUID
      * @param productDTO ProductDTO
-     * @return ProductDTO
+     * @param version    Long expected version, null to update whatever version is stored
+     * @return Product updated, null when not found
+     * @throws ProductPreconditionFailedException when the product is at another version
      */
-    public ProductDTO updateProduct(UUID id, ProductDTO productDTO) {
+    @Transactional
+    @CacheEvict(cacheNames = PRODUCTS_CACHE, key = "#id")
+    public Product updateProduct(UUID id, ProductDTO productDTO, Long version) {
 
-        Optional<Product> optionalProduct = productRepository.findByExternalId(id);
+        LocalDateTime updatedAt = LocalDateTime.now();
 
-        if (optionalProduct.isEmpty()) {
-            return null;
-        }
+        Optional<Product> product = version == null
+                ? productRepository.update(id, productDTO.getName(), productDTO.getDescription(), productDTO.getPrice(), updatedAt)
+                : productRepository.updateVersion(id, version, productDTO.getName(), productDTO.getDescription(), productDTO.getPrice(), updatedAt);
 
-        Product product = toProduct(productDTO);
-        product.setId(optionalProduct.get().getId());
-        product.setExternalId(id);
+        log.debug("Product updated: id={} updated={} ", id, product.isPresent());
 
-        Product productSaved = productRepository.save(product);
+        if (product.isEmpty() && version != null) {
+            failIfExists(id);
+        }
 
-        return toProductDTO(productSaved);
+        product.ifPresent(updated -> {
+            productChangeService.recordChanges(List.of(toProductChangeDTO(updated, UPDATED)));
+            productCacheInvalidator.invalidate(List.of(updated));
+        });
+
+        return product.orElse(null);
     }
 
     /**
      * Delete Product
+     * <p>
+     * One DELETE keyed on externalId.
      *
-     * @param id Long
+     * @param id      UUID
+     * @param version Long expected version, null to delete whatever version is stored
+     * @return true when deleted, false when not found
+     * @throws ProductPreconditionFailedException when the product is at another version
      */
-    public void deleteProduct(Long id) {
+    @Transactional
+    @CacheEvict(cacheNames = PRODUCTS_CACHE, key = "#id")
+    public boolean deleteProduct(UUID id, Long version) {
+
+        int deleted = version == null
+                ? productRepository.deleteByExternalId(id)
+                : productRepository.deleteByExternalIdAndVersion(id, version);
+
+        log.debug("Products deleted: {} ", deleted);
+
+        if (deleted == 0 && version != null) {
+            failIfExists(id);
+        }
+
+        if (deleted > 0) {
+            productChangeService.recordChanges(List.of(toDeletedChangeDTO(id)));
+            productCacheInvalidator.invalidateDeleted(List.of(id));
+        }
+
+        return deleted > 0;
+    }
 
-        log.debug("Long Id: {} ", id);
+    /**
+     * Tells a version mismatch from a missing product; only runs once a conditional write matched no row.
+     */
+    private void failIfExists(UUID id) {
 
-        productRepository.deleteById(id);
+        if (productRepository.existsByExternalId(id)) {
+            throw new ProductPreconditionFailedException("Product was modified");
+        }
     }
 
     /**
      * Search Products
+     * <p>
+     * Every word of q must prefix a word of the name or description; results are ranked by relevance.
      *
      * @param q         Name or Description
      * @param min_price BigDecimal
      * @param max_price BigDecimal
-     * @return List<ProductDTO>
+     * @return ProductList
      */
-    public List<ProductDTO> searchProducts(String q, BigDecimal min_price, BigDecimal max_price) {
+    @Transactional(readOnly = true)
+    public ProductList searchProducts(String q, BigDecimal min_price, BigDecimal max_price) {
 
-        var productList = productRepository.findByPriceBetweenAndNameContainingAndDescriptionContaining(min_price, max_price, q, q);
+        ProductSnapshot snapshot = snapshot();
+
+        if (snapshot != null) {
+            return toProductList(snapshot.search(SearchQueryParser.toTerms(q), min_price, max_price));
+        }
+
+        String query = SearchQueryParser.toPrefixQuery(q);
+
+        if (query == null) {
+            return toProductList(List.of());
+        }
+
+        var productList = productRepository.search(query, min_price, max_price);
+
+        log.debug("Products found: {} ", productList.size());
+
+        return toProductList(productList);
+    }
+
+    /**
+     * Summarize Search
+     *
+     * @param q         Name or Description
+     * @param min_price BigDecimal
+     * @param max_price BigDecimal
+     * @return ProductsSummary
+     */
+    @Transactional(readOnly = true)
+    public ProductsSummary summarizeSearch(String q, BigDecimal min_price, BigDecimal max_price) {
 
-        log.debug("Product List: {} ", productList);
+        ProductSnapshot snapshot = snapshot();
 
-        return productList.stream()
+        if (snapshot != null) {
+            return ProductsSummary.of(snapshot.search(SearchQueryParser.toTerms(q), min_price, max_price));
+        }
+
+        String query = SearchQueryParser.toPrefixQuery(q);
+
+        return query == null ? ProductsSummary.of(List.of()) : productRepository.summarizeSearch(query, min_price, max_price);
+    }
+
+    /**
+     * Facet Search
+     * <p>
+     * Hit count, price statistics and a price histogram of what searchProducts would return, computed by
+     * the database without loading the products.
+     *
+     * @param q         Name or Description
+     * @param min_price BigDecimal
+     * @param max_price BigDecimal
+     * @param buckets   Integer number of equal-width price buckets, 10 when absent
+     * @return PriceFacetsDTO
+     */
+    @Transactional(readOnly = true)
+    public PriceFacetsDTO facetSearch(String q, BigDecimal min_price, BigDecimal max_price, Integer buckets) {
+
+        String query = SearchQueryParser.toPrefixQuery(q);
+        int bucketCount = buckets == null ? DEFAULT_BUCKETS : Math.max(1, Math.min(buckets, MAX_BUCKETS));
+
+        List<PriceBucket> rows = query == null ? List.of() : productRepository.facetSearch(query, min_price, max_price, bucketCount);
+
+        if (rows.isEmpty()) {
+            return PriceFacetsDTO.builder()
+                    .count(0)
+                    .buckets(List.of())
+                    .build();
+        }
+
+        BigDecimal low = rows.get(0).getLow();
+        BigDecimal high = rows.get(0).getHigh();
+        int size = low.compareTo(high) == 0 ? 1 : bucketCount;
+        BigDecimal width = high.subtract(low).divide(BigDecimal.valueOf(size), MathContext.DECIMAL64);
+
+        long[] counts = new long[size];
+        long count = 0;
+        BigDecimal total = BigDecimal.ZERO;
+
+        for (PriceBucket row : rows) {
+            counts[row.getBucket() - 1] = row.getCount();
+            count += row.getCount();
+            total = total.add(row.getTotal());
+        }
+
+        List<PriceBucketDTO> priceBuckets = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            priceBuckets.add(PriceBucketDTO.builder()
+                    .from(bound(low, width, i))
+                    .to(i == size - 1 ? high : bound(low, width, i + 1))
+                    .count(counts[i])
+                    .build());
+        }
+
+        return PriceFacetsDTO.builder()
+                .count(count)
+                .minPrice(low)
+                .maxPrice(high)
+                .avgPrice(total.divide(BigDecimal.valueOf(count), low.scale(), RoundingMode.HALF_UP))
+                .buckets(priceBuckets)
+                .build();
+    }
+
+    private static BigDecimal bound(BigDecimal low, BigDecimal width, int index) {
+        return low.add(width.multiply(BigDecimal.valueOf(index))).setScale(low.scale(), RoundingMode.HALF_UP);
+    }
+
+    private ProductSnapshot snapshot() {
+        return productSnapshotManager == null ? null : productSnapshotManager.current();
+    }
+
+    private static ProductList toProductList(List<Product> products) {
+
+        List<ProductDTO> productDTOs = products.stream()
                 .map(ProductParser::toProductDTO)
                 .collect(Collectors.toList());
+
+        return new ProductList(productDTOs, ProductsSummary.of(products));
     }
 }
@@ -0,0 +1,97 @@
+package dev.deyve.productapi.services;
+
+import dev.deyve.productapi.configurations.PaginationProperties;
+import dev.deyve.productapi.dtos.ProductDTO;
+import dev.deyve.productapi.parsers.ProductParser;
+import dev.deyve.productapi.parsers.SearchQueryParser;
+import dev.deyve.productapi.repositories.ReactiveProductRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+/**
+ * Reactive Product Service
+ * <p>
+ * The reads of {@link ProductService} over R2DBC, for the reactive profile. Nothing is collected:
+ * every product is mapped with {@link ProductParser} as the subscriber asks for it.
+ */
+@Log4j2
+@Service
+@ConditionalOnWebApplication(type = REACTIVE)
+public class ReactiveProductService {
+
+    private final ReactiveProductRepository reactiveProductRepository;
+
+    private final PaginationProperties paginationProperties;
+
+    public ReactiveProductService(ReactiveProductRepository reactiveProductRepository, PaginationProperties paginationProperties) {
+        this.reactiveProductRepository = reactiveProductRepository;
+        this.paginationProperties = paginationProperties;
+    }
+
+    /**
+     * Find Products
+     *
+     * @param after UUID cursor, the last externalId of the previous page
+     * @param limit page size, bounded by product.pagination.max-limit
+     * @return Flux<ProductDTO>
+     */
+    public Flux<ProductDTO> findProducts(UUID after, Integer limit) {
+
+        int pageSize = pageSize(limit);
+
+        return (after == null
+                ? reactiveProductRepository.findFirstPage(pageSize)
+                : reactiveProductRepository.findPageAfter(after, pageSize))
+                .map(ProductParser::toProductDTO);
+    }
+
+    /**
+     * Find Product
+     *
+     * @param id UUID
+     * @return Mono<ProductDTO>, empty when not found
+     */
+    public Mono<ProductDTO> findByExternalId(UUID id) {
+
+        return reactiveProductRepository.findByExternalId(id)
+                .doOnNext(product -> log.debug("Product found: id={} ", id))
+                .map(ProductParser::toProductDTO);
+    }
+
+    /**
+     * Search Products
+     *
+     * @param q         Name or Description
+     * @param min_price BigDecimal
+     * @param max_price BigDecimal
+     * @return Flux<ProductDTO>
+     */
+    public Flux<ProductDTO> searchProducts(String q, BigDecimal min_price, BigDecimal max_price) {
+
+        String query = SearchQueryParser.toPrefixQuery(q);
+
+        if (query == null) {
+            return Flux.empty();
+        }
+
+        return reactiveProductRepository.search(query, min_price, max_price)
+                .map(ProductParser::toProductDTO);
+    }
+
+    private int pageSize(Integer limit) {
+
+        if (limit == null) {
+            return paginationProperties.getDefaultLimit();
+        }
+
+        return Math.max(1, Math.min(limit, paginationProperties.getMaxLimit()));
+    }
+}
@@ -0,0 +1,13 @@
+create sequence if not exists hibernate_sequence start 1 increment 1;
+
+create table if not exists product
+(
+    id          int8      not null,
+    created_at  timestamp not null,
+    description varchar(255),
+    external_id uuid unique,
+    name        varchar(255),
+    price       numeric(19, 2),
+    updated_at  timestamp,
+    primary key (id)
+);
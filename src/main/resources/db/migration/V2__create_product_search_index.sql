@@ -0,0 +1,3 @@
+-- Must match ProductRepository.SEARCH_DOCUMENT, otherwise the planner cannot use the index.
+create index if not exists idx_product_search
+    on product using gin (to_tsvector('simple', coalesce(name, '') || ' ' || coalesce(description, '')));
@@ -0,0 +1,2 @@
+-- Product ids are allocated 50 at a time (pooled optimizer), see Product#id.
+alter sequence hibernate_sequence increment by 50;
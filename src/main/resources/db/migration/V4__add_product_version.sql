@@ -0,0 +1,2 @@
+-- Optimistic locking counter, see Product#version.
+alter table product add column if not exists version bigint not null default 0;
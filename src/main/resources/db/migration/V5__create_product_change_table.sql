@@ -0,0 +1,14 @@
+-- Transactional outbox of the product mutations, read by GET /products/changes.
+-- Appends are serialized with an advisory lock, so ids become visible in commit order.
+create table if not exists product_change
+(
+    id          bigserial   not null,
+    external_id uuid        not null,
+    operation   varchar(16) not null,
+    name        varchar(255),
+    description varchar(255),
+    price       numeric(19, 2),
+    version     int8,
+    changed_at  timestamp   not null,
+    primary key (id)
+);
@@ -0,0 +1,7 @@
+-- Keyset pagination and lookups by id already use the unique index on external_id (V1).
+
+-- Price range filter of the search; combined with idx_product_search in a bitmap AND.
+create index if not exists idx_product_price on product (price);
+
+-- Incremental sync by modification time, external_id breaking ties in the same order as the pages.
+create index if not exists idx_product_updated_at on product (updated_at, external_id);
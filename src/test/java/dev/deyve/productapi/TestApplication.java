@@ -0,0 +1,87 @@
+package dev.deyve.productapi;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Test Application
+ * <p>
+ * Starts the application on a random port with its migrations run into a scratch schema, which
+ * {@link #stop} drops. The database is a Testcontainers PostgreSQL, shared by the test classes, unless
+ * -Dtest.datasource.url points to an existing one; the calling test is skipped when neither is available.
+ */
+public class TestApplication {
+
+	private static PostgreSQLContainer<?> container;
+
+	public static ConfigurableApplicationContext start(String schema, String... args) {
+
+		List<String> arguments = new ArrayList<>(datasourceArguments(schema));
+		arguments.add("--server.port=0");
+		arguments.add("--spring.jpa.show-sql=false");
+		arguments.add("--logging.level.root=WARN");
+		arguments.add("--product.rate-limit.enabled=false");
+		arguments.addAll(List.of(args));
+
+		return new SpringApplicationBuilder(ProductApiApplication.class).run(arguments.toArray(String[]::new));
+	}
+
+	public static void stop(ConfigurableApplicationContext context, String schema) {
+
+		if (context == null) {
+			return;
+		}
+
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+				context.getEnvironment().getProperty("spring.datasource.url"),
+				context.getEnvironment().getProperty("spring.datasource.username"),
+				context.getEnvironment().getProperty("spring.datasource.password")));
+
+		context.close();
+
+		jdbcTemplate.execute("drop schema if exists " + schema + " cascade");
+	}
+
+	public static String baseUrl(ConfigurableApplicationContext context) {
+		return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+	}
+
+	private static List<String> datasourceArguments(String schema) {
+
+		String url = System.getProperty("test.datasource.url");
+		String username = System.getProperty("test.datasource.username", "product-user");
+		String password = System.getProperty("test.datasource.password", "product-password");
+
+		if (url == null) {
+			assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "No PostgreSQL available");
+			url = container().getJdbcUrl();
+			username = container().getUsername();
+			password = container().getPassword();
+		}
+
+		return List.of(
+				"--spring.datasource.url=" + url + (url.contains("?") ? "&" : "?") + "currentSchema=" + schema,
+				"--spring.datasource.username=" + username,
+				"--spring.datasource.password=" + password,
+				"--spring.flyway.schemas=" + schema);
+	}
+
+	private static synchronized PostgreSQLContainer<?> container() {
+
+		if (container == null) {
+			container = new PostgreSQLContainer<>("postgres:13");
+			container.start();
+		}
+
+		return container;
+	}
+}
@@ -0,0 +1,126 @@
+package dev.deyve.productapi.caches;
+
+import dev.deyve.productapi.models.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static dev.deyve.productapi.configurations.CacheConfiguration.PRODUCTS_CACHE;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Two instances sharing the local broadcaster, without the second-level cache.
+ */
+class ProductCacheInvalidatorTest {
+
+	private final Product product = Product.builder().id(1L).externalId(UUID.randomUUID()).name("Product").build();
+
+	private Cache cacheA;
+
+	private Cache cacheB;
+
+	private ProductCacheInvalidator invalidatorA;
+
+	@BeforeEach
+	void setUp() {
+
+		LocalCacheInvalidationBroadcaster broadcaster = new LocalCacheInvalidationBroadcaster();
+
+		ConcurrentMapCacheManager cacheManagerA = new ConcurrentMapCacheManager(PRODUCTS_CACHE);
+		ConcurrentMapCacheManager cacheManagerB = new ConcurrentMapCacheManager(PRODUCTS_CACHE);
+
+		invalidatorA = new ProductCacheInvalidator(broadcaster, cacheManagerA, null);
+		new ProductCacheInvalidator(broadcaster, cacheManagerB, null);
+
+		cacheA = cacheManagerA.getCache(PRODUCTS_CACHE);
+		cacheB = cacheManagerB.getCache(PRODUCTS_CACHE);
+		cacheA.put(product.getExternalId(), product);
+		cacheB.put(product.getExternalId(), product);
+	}
+
+	@AfterEach
+	void tearDown() {
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void evictsTheOtherInstances() {
+
+		invalidatorA.invalidate(List.of(product));
+
+		assertNull(cacheB.get(product.getExternalId()));
+		assertNotNull(cacheA.get(product.getExternalId()));
+	}
+
+	@Test
+	void evictsDeletedProducts() {
+
+		invalidatorA.invalidateDeleted(List.of(product.getExternalId()));
+
+		assertNull(cacheB.get(product.getExternalId()));
+	}
+
+	@Test
+	void publishesOnlyOnceCommitted() {
+
+		TransactionSynchronizationManager.initSynchronization();
+
+		invalidatorA.invalidate(List.of(product));
+
+		assertNotNull(cacheB.get(product.getExternalId()));
+
+		TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+				TransactionSynchronization.STATUS_COMMITTED);
+
+		assertNull(cacheB.get(product.getExternalId()));
+	}
+
+	@Test
+	void doesNotPublishARollback() {
+
+		TransactionSynchronizationManager.initSynchronization();
+
+		invalidatorA.invalidate(List.of(product));
+
+		TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+				TransactionSynchronization.STATUS_ROLLED_BACK);
+
+		assertNotNull(cacheB.get(product.getExternalId()));
+	}
+
+	@Test
+	void evictsAgainOnceTheReplicasCaughtUp() throws Exception {
+
+		ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(PRODUCTS_CACHE);
+
+		try (ReplicaLagCacheInvalidationBroadcaster broadcaster = new ReplicaLagCacheInvalidationBroadcaster(
+				new LocalCacheInvalidationBroadcaster(), Duration.ofMillis(100))) {
+
+			ProductCacheInvalidator invalidator = new ProductCacheInvalidator(broadcaster, cacheManager, null);
+			Cache cache = cacheManager.getCache(PRODUCTS_CACHE);
+
+			invalidator.invalidate(List.of(product));
+
+			// read back from a lagging replica between the eviction and the replay
+			cache.put(product.getExternalId(), product);
+
+			Thread.sleep(500);
+
+			assertNull(cache.get(product.getExternalId()));
+		}
+	}
+
+}
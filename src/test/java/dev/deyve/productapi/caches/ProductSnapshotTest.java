@@ -0,0 +1,109 @@
+package dev.deyve.productapi.caches;
+
+import dev.deyve.productapi.models.Product;
+import dev.deyve.productapi.parsers.SearchQueryParser;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ProductSnapshotTest {
+
+	private static final UUID LOW = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+	private static final UUID MIDDLE = UUID.fromString("7fffffff-0000-0000-0000-000000000000");
+
+	// negative as a long, but last in PostgreSQL's uuid order
+	private static final UUID HIGH = UUID.fromString("ffffffff-0000-0000-0000-000000000000");
+
+	private static final BigDecimal MAX = new BigDecimal("1000");
+
+	private final ProductSnapshot snapshot = ProductSnapshot.of(List.of(
+			product(HIGH, "Red phone", "Fits most phones", "30"),
+			product(LOW, "Blue phone", "Wireless headphones", "100"),
+			product(MIDDLE, "Laptop", "Fast", "900")));
+
+	@Test
+	void pagesInUuidOrder() {
+
+		assertEquals(List.of(LOW, MIDDLE, HIGH), externalIds(snapshot.page(null, 10)));
+		assertEquals(List.of(MIDDLE), externalIds(snapshot.page(LOW, 1)));
+		assertEquals(List.of(), externalIds(snapshot.page(HIGH, 10)));
+	}
+
+	@Test
+	void searchesWordPrefixesWithinThePriceRange() {
+
+		assertEquals(List.of(HIGH, LOW), externalIds(search("phone", BigDecimal.ZERO, MAX)));
+		assertEquals(List.of(LOW), externalIds(search("PHONE blu", BigDecimal.ZERO, MAX)));
+		assertEquals(List.of(LOW), externalIds(search("phone", new BigDecimal("50"), MAX)));
+		assertEquals(List.of(), externalIds(search("phone", null, MAX)));
+		assertEquals(List.of(), externalIds(search("  ", BigDecimal.ZERO, MAX)));
+	}
+
+	@Test
+	void appliesUpsertsAndDeletes() {
+
+		ProductSnapshot next = snapshot.apply(List.of(product(MIDDLE, "Tablet", "Slow", "800")), List.of(HIGH));
+
+		assertEquals(2, next.size());
+		assertNull(next.find(HIGH));
+		assertEquals("Tablet", next.find(MIDDLE).getName());
+		assertEquals(List.of(), externalIds(next.search(List.of("laptop"), BigDecimal.ZERO, MAX)));
+		assertEquals(List.of(MIDDLE), externalIds(next.search(List.of("tab"), BigDecimal.ZERO, MAX)));
+		assertEquals(3, snapshot.size());
+	}
+
+	@Test
+	void handsOutCopiesCallersCannotChangeItThrough() {
+
+		snapshot.find(LOW).setName("Changed");
+		snapshot.page(null, 1).get(0).setPrice(BigDecimal.ONE);
+
+		assertEquals("Blue phone", snapshot.find(LOW).getName());
+		assertEquals(new BigDecimal("100"), snapshot.find(LOW).getPrice());
+	}
+
+	@Test
+	void estimatesTheSameMemoryIncrementallyAsFromScratch() {
+
+		Product tablet = product(MIDDLE, "Tablet", "Slow", "800");
+		Product lamp = product(UUID.randomUUID(), "Lamp", "Phone charger included", "20");
+
+		ProductSnapshot next = snapshot.apply(List.of(tablet, lamp, product(HIGH, "Gone", "Soon", "1")), List.of(HIGH));
+
+		assertEquals(ProductSnapshot.of(List.of(snapshot.find(LOW), tablet, lamp)).getEstimatedBytes(), next.getEstimatedBytes());
+		assertEquals(0, next.apply(List.of(), List.of(LOW, MIDDLE, lamp.getExternalId())).getEstimatedBytes());
+	}
+
+	@Test
+	void keepsItselfWhenNothingChanges() {
+
+		assertSame(snapshot, snapshot.apply(List.of(), List.of(UUID.randomUUID())));
+	}
+
+	private List<Product> search(String q, BigDecimal minPrice, BigDecimal maxPrice) {
+		return snapshot.search(SearchQueryParser.toTerms(q), minPrice, maxPrice);
+	}
+
+	private static List<UUID> externalIds(List<Product> products) {
+		return products.stream().map(Product::getExternalId).collect(Collectors.toList());
+	}
+
+	private static Product product(UUID externalId, String name, String description, String price) {
+		return Product.builder()
+				.externalId(externalId)
+				.name(name)
+				.description(description)
+				.price(new BigDecimal(price))
+				.updatedAt(LocalDateTime.now())
+				.build();
+	}
+}
@@ -0,0 +1,97 @@
+package dev.deyve.productapi.caches;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.deyve.productapi.configurations.ResponseCacheProperties;
+import dev.deyve.productapi.dtos.CacheInvalidationDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static dev.deyve.productapi.configurations.CacheConfiguration.PAGE_RESPONSES_CACHE;
+import static dev.deyve.productapi.configurations.CacheConfiguration.PRODUCT_RESPONSES_CACHE;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResponseCacheTest {
+
+	private final UUID id = UUID.randomUUID();
+
+	private final LocalCacheInvalidationBroadcaster broadcaster = new LocalCacheInvalidationBroadcaster();
+
+	private ResponseCache responseCache;
+
+	@BeforeEach
+	void setUp() {
+
+		ResponseCacheProperties responseCacheProperties = new ResponseCacheProperties();
+		responseCacheProperties.setGzipMinSize(DataSize.ofBytes(0));
+
+		responseCache = new ResponseCache(new ConcurrentMapCacheManager(PRODUCT_RESPONSES_CACHE, PAGE_RESPONSES_CACHE), new ObjectMapper(),
+				responseCacheProperties, broadcaster, null);
+	}
+
+	@Test
+	void writeEvictsItsProductAndEveryPage() {
+
+		UUID other = UUID.randomUUID();
+		responseCache.putProduct(id, responseCache.generation(), ResponseEntity.ok(Map.of("id", id)));
+		responseCache.putProduct(other, responseCache.generation(), ResponseEntity.ok(Map.of("id", other)));
+		responseCache.putPage("page", responseCache.generation(), ResponseEntity.ok(List.of()), 0);
+
+		broadcaster.publish(CacheInvalidationDTO.builder().ids(List.of()).externalIds(List.of(id)).build());
+
+		assertNull(responseCache.getProduct(id));
+		assertNotNull(responseCache.getProduct(other));
+		assertNull(responseCache.getPage("page"));
+	}
+
+	@Test
+	void doesNotKeepWhatWasReadDuringAWrite() {
+
+		long generation = responseCache.generation();
+
+		broadcaster.publish(CacheInvalidationDTO.builder().ids(List.of()).externalIds(List.of(id)).build());
+		CachedResponse cached = responseCache.putProduct(id, generation, ResponseEntity.ok(Map.of("id", id)));
+
+		assertNotNull(cached);
+		assertNull(responseCache.getProduct(id));
+	}
+
+	@Test
+	void sendsTheGzipVariantOnlyWhenAccepted() {
+
+		CachedResponse cached = responseCache.putProduct(id, responseCache.generation(), ResponseEntity.ok().eTag("\"1\"").body(Map.of("id", id)));
+
+		HttpHeaders gzip = new HttpHeaders();
+		gzip.set(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.8");
+		HttpHeaders refused = new HttpHeaders();
+		refused.set(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0");
+
+		assertEquals("gzip", cached.toResponseEntity(gzip).getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertArrayEquals(cached.getBody(), cached.toResponseEntity(refused).getBody());
+		assertArrayEquals(cached.getBody(), cached.toResponseEntity(new HttpHeaders()).getBody());
+		assertEquals("\"1\"", cached.getETag());
+		assertEquals("\"1-gzip\"", cached.toResponseEntity(gzip).getHeaders().getETag());
+		assertEquals("\"1\"", cached.toResponseEntity(refused).getHeaders().getETag());
+		assertEquals("\"1-gzip\"", cached.getETag(gzip));
+		assertEquals("\"1\"", cached.getETag(refused));
+	}
+
+	@Test
+	void normalizesSearchKeys() {
+
+		assertEquals(ResponseCache.searchKey("Phone  case", new BigDecimal("10.00"), new BigDecimal("1E+2")),
+				ResponseCache.searchKey("phone, CASE!", BigDecimal.TEN, new BigDecimal("100")));
+	}
+
+}
@@ -0,0 +1,164 @@
+package dev.deyve.productapi.configurations;
+
+import dev.deyve.productapi.ProductApiApplication;
+import dev.deyve.productapi.controllers.ReadYourWritesInterceptor;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the application against two independent PostgreSQL databases, a primary and a "replica" that never
+ * receives the primary's writes, so every response shows which one served it. The databases are
+ * Testcontainers PostgreSQL unless -Drouting.primary.url and -Drouting.replica.url point to existing ones.
+ */
+class ReadReplicaRoutingTest {
+
+	private static final HttpClient HTTP_CLIENT = HttpClient.newHttpClient();
+
+	private static PostgreSQLContainer<?> primary;
+
+	private static PostgreSQLContainer<?> replica;
+
+	private static ConfigurableApplicationContext context;
+
+	private static JdbcTemplate replicaJdbcTemplate;
+
+	private static String baseUrl;
+
+	@BeforeAll
+	static void setUp() {
+
+		String primaryUrl = System.getProperty("routing.primary.url");
+		String replicaUrl = System.getProperty("routing.replica.url");
+		String username = System.getProperty("routing.datasource.username", "product-user");
+		String password = System.getProperty("routing.datasource.password", "product-password");
+
+		assumeTrue((primaryUrl != null && replicaUrl != null) || DockerClientFactory.instance().isDockerAvailable(),
+				"No PostgreSQL available");
+
+		if (primaryUrl == null || replicaUrl == null) {
+			primary = new PostgreSQLContainer<>("postgres:13");
+			replica = new PostgreSQLContainer<>("postgres:13");
+			primary.start();
+			replica.start();
+			primaryUrl = primary.getJdbcUrl();
+			replicaUrl = replica.getJdbcUrl();
+			username = primary.getUsername();
+			password = primary.getPassword();
+		}
+
+		DriverManagerDataSource replicaDataSource = new DriverManagerDataSource(replicaUrl, username, password);
+
+		Flyway.configure()
+				.dataSource(replicaDataSource)
+				.baselineOnMigrate(true)
+				.baselineVersion("0")
+				.load()
+				.migrate();
+
+		replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+
+		context = new SpringApplicationBuilder(ProductApiApplication.class).run(
+				"--server.port=0",
+				"--spring.datasource.url=" + primaryUrl,
+				"--spring.datasource.username=" + username,
+				"--spring.datasource.password=" + password,
+				"--product.replicas.enabled=true",
+				"--product.replicas.nodes[0].url=" + replicaUrl,
+				"--product.replicas.read-your-writes=1m",
+				"--spring.jpa.show-sql=false",
+				"--logging.level.root=WARN");
+
+		baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+	}
+
+	@AfterAll
+	static void tearDown() {
+
+		if (context != null) {
+			context.close();
+		}
+
+		if (primary != null) {
+			primary.stop();
+			replica.stop();
+		}
+	}
+
+	@Test
+	void readsGoToTheReplicaAndWritesToThePrimary() throws Exception {
+
+		UUID id = UUID.randomUUID();
+
+		replicaJdbcTemplate.update("insert into product (id, created_at, updated_at, external_id, name, price, version)"
+				+ " values (nextval('hibernate_sequence'), now(), now(), ?, 'Replica only', 1, 0)", id);
+
+		assertEquals(200, send(HttpRequest.newBuilder(URI.create(baseUrl + "/products/" + id))).statusCode());
+
+		HttpResponse<String> put = send(HttpRequest.newBuilder(URI.create(baseUrl + "/products/" + id))
+				.header("Content-Type", "application/json")
+				.PUT(HttpRequest.BodyPublishers.ofString("{\"name\":\"Primary\",\"price\":2}")));
+
+		assertEquals(404, put.statusCode());
+	}
+
+	@Test
+	void readYourWritesReadsFromThePrimary() throws Exception {
+
+		HttpResponse<String> post = send(HttpRequest.newBuilder(URI.create(baseUrl + "/products"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Written\",\"price\":3}")));
+
+		assertEquals(201, post.statusCode());
+
+		String id = post.body().substring(post.body().indexOf("\"id\":\"") + 6, post.body().indexOf("\"id\":\"") + 42);
+		String until = post.headers().firstValue(ReadYourWritesInterceptor.READ_PRIMARY_UNTIL).orElse(null);
+
+		assertTrue(until != null && Long.parseLong(until.substring(0, until.indexOf('.'))) > System.currentTimeMillis());
+
+		assertEquals(404, send(HttpRequest.newBuilder(URI.create(baseUrl + "/products/" + id))).statusCode());
+
+		assertEquals(200, send(HttpRequest.newBuilder(URI.create(baseUrl + "/products/" + id))
+				.header(ReadYourWritesInterceptor.READ_PRIMARY_UNTIL, until)).statusCode());
+	}
+
+	@Test
+	void forgedReadPrimaryUntilIsIgnored() throws Exception {
+
+		HttpResponse<String> post = send(HttpRequest.newBuilder(URI.create(baseUrl + "/products"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Forged\",\"price\":4}")));
+
+		String id = post.body().substring(post.body().indexOf("\"id\":\"") + 6, post.body().indexOf("\"id\":\"") + 42);
+		String until = post.headers().firstValue(ReadYourWritesInterceptor.READ_PRIMARY_UNTIL).orElseThrow();
+		String signature = until.substring(until.indexOf('.'));
+
+		for (String forged : List.of("9999999999999", "9999999999999" + signature, until + "x")) {
+			assertEquals(404, send(HttpRequest.newBuilder(URI.create(baseUrl + "/products/" + id))
+					.header(ReadYourWritesInterceptor.READ_PRIMARY_UNTIL, forged)).statusCode(), forged);
+		}
+	}
+
+	private static HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+		return HTTP_CLIENT.send(request.build(), HttpResponse.BodyHandlers.ofString());
+	}
+
+}
@@ -0,0 +1,122 @@
+package dev.deyve.productapi.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.deyve.productapi.TestApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives /products over HTTP against an application started by {@link TestApplication}.
+ */
+class ProductControllerTest {
+
+	private static final String SCHEMA = "product_controller_test";
+
+	private static final int PRODUCTS = 5;
+
+	private static final HttpClient HTTP_CLIENT = HttpClient.newHttpClient();
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private static ConfigurableApplicationContext context;
+
+	private static String baseUrl;
+
+	private static final List<String> ids = new ArrayList<>();
+
+	@BeforeAll
+	static void setUp() throws IOException, InterruptedException {
+
+		context = TestApplication.start(SCHEMA);
+		baseUrl = TestApplication.baseUrl(context);
+
+		for (int i = 0; i < PRODUCTS; i++) {
+			ids.add(create("Product " + i, "Description " + i, i + ".50").get("id").asText());
+		}
+	}
+
+	@AfterAll
+	static void tearDown() {
+		TestApplication.stop(context, SCHEMA);
+	}
+
+	@Test
+	void walksTheCatalogWithTheNextCursor() throws IOException, InterruptedException {
+
+		TreeSet<String> seen = new TreeSet<>();
+		List<Integer> pageSizes = new ArrayList<>();
+		String after = null;
+
+		do {
+			HttpResponse<String> response = get("/products?limit=2" + (after == null ? "" : "&after=" + after));
+			JsonNode page = OBJECT_MAPPER.readTree(response.body());
+			page.forEach(product -> seen.add(product.get("id").asText()));
+			pageSizes.add(page.size());
+			after = response.headers().firstValue("next").orElse(null);
+		} while (after != null);
+
+		assertEquals(List.of(2, 2, 1), pageSizes);
+		assertEquals(new TreeSet<>(ids), seen);
+	}
+
+	@Test
+	void fullPageSendsItsLastIdAsNext() throws IOException, InterruptedException {
+
+		HttpResponse<String> response = get("/products?limit=2");
+		JsonNode page = OBJECT_MAPPER.readTree(response.body());
+
+		assertEquals(Optional.of(page.get(1).get("id").asText()), response.headers().firstValue("next"));
+	}
+
+	@Test
+	void shortLastPageSendsNoNext() throws IOException, InterruptedException {
+
+		HttpResponse<String> response = get("/products?limit=" + (PRODUCTS + 1));
+
+		assertEquals(PRODUCTS, OBJECT_MAPPER.readTree(response.body()).size());
+		assertTrue(response.headers().firstValue("next").isEmpty());
+	}
+
+	private static JsonNode create(String name, String description, String price) throws IOException, InterruptedException {
+
+		String body = OBJECT_MAPPER.createObjectNode()
+				.put("name", name)
+				.put("description", description)
+				.put("price", price)
+				.toString();
+
+		HttpResponse<String> response = HTTP_CLIENT.send(HttpRequest.newBuilder(URI.create(baseUrl + "/products"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build(), HttpResponse.BodyHandlers.ofString());
+
+		assertEquals(201, response.statusCode());
+
+		return OBJECT_MAPPER.readTree(response.body());
+	}
+
+	private static HttpResponse<String> get(String path) throws IOException, InterruptedException {
+
+		HttpResponse<String> response = HTTP_CLIENT.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).build(), HttpResponse.BodyHandlers.ofString());
+
+		assertEquals(200, response.statusCode());
+
+		return response;
+	}
+}
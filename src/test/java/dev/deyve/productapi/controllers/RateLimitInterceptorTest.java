@@ -0,0 +1,92 @@
+package dev.deyve.productapi.controllers;
+
+import dev.deyve.productapi.configurations.RateLimitProperties;
+import dev.deyve.productapi.exceptions.RequestRejectedException;
+import dev.deyve.productapi.limiters.LoadShedder;
+import dev.deyve.productapi.limiters.RequestLimiter;
+import dev.deyve.productapi.metrics.ProductMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Buckets of two tokens, spent by requests weighing one.
+ */
+class RateLimitInterceptorTest {
+
+	private static final String KNOWN_KEY = "known-key";
+
+	private final HandlerMethod handler;
+
+	RateLimitInterceptorTest() throws NoSuchMethodException {
+		handler = new HandlerMethod(this, getClass().getMethod("handle"));
+	}
+
+	@Test
+	void keysUnknownHeaderValuesByAddress() {
+
+		RateLimitInterceptor interceptor = interceptor(false);
+
+		assertTrue(allowed(interceptor, UUID.randomUUID().toString()));
+		assertTrue(allowed(interceptor, UUID.randomUUID().toString()));
+		assertThrows(RequestRejectedException.class, () -> allowed(interceptor, UUID.randomUUID().toString()));
+	}
+
+	@Test
+	void givesKnownKeysTheirOwnBucket() {
+
+		RateLimitInterceptor interceptor = interceptor(false);
+
+		assertTrue(allowed(interceptor, null));
+		assertTrue(allowed(interceptor, null));
+		assertTrue(allowed(interceptor, KNOWN_KEY));
+		assertTrue(allowed(interceptor, KNOWN_KEY));
+		assertThrows(RequestRejectedException.class, () -> allowed(interceptor, KNOWN_KEY));
+	}
+
+	@Test
+	void believesAnyValueFromATrustedGateway() {
+
+		RateLimitInterceptor interceptor = interceptor(true);
+
+		for (int i = 0; i < 5; i++) {
+			assertTrue(allowed(interceptor, UUID.randomUUID().toString()));
+		}
+	}
+
+	public void handle() {
+	}
+
+	private static RateLimitInterceptor interceptor(boolean trustClientHeader) {
+
+		RateLimitProperties rateLimitProperties = new RateLimitProperties();
+		rateLimitProperties.setCapacity(2);
+		rateLimitProperties.setRefillPerSecond(0.001);
+
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+		return new RateLimitInterceptor(new RequestLimiter(rateLimitProperties), new LoadShedder(rateLimitProperties, meterRegistry, null),
+				new ProductMetrics(meterRegistry), rateLimitProperties.getClientHeader(), Set.of(KNOWN_KEY), trustClientHeader, Duration.ofSeconds(1));
+	}
+
+	private boolean allowed(RateLimitInterceptor interceptor, String key) {
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products");
+		request.setRemoteAddr("192.0.2.1");
+
+		if (key != null) {
+			request.addHeader("X-API-Key", key);
+		}
+
+		return interceptor.preHandle(request, new MockHttpServletResponse(), handler);
+	}
+}
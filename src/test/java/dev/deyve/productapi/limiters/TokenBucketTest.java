@@ -0,0 +1,46 @@
+package dev.deyve.productapi.limiters;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenBucketTest {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	void consumesUntilEmptyAndTellsHowLongToWait() {
+
+		TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+		assertEquals(0, bucket.tryConsume(4, 0));
+		assertEquals(0, bucket.tryConsume(6, 0));
+		assertEquals(SECOND / 5, bucket.tryConsume(1, 0));
+		assertEquals(SECOND, bucket.tryConsume(5, 0));
+	}
+
+	@Test
+	void refillsUpToItsCapacity() {
+
+		TokenBucket bucket = new TokenBucket(10, 5, 0);
+		bucket.tryConsume(10, 0);
+
+		assertEquals(0, bucket.tryConsume(5, SECOND));
+		assertEquals(0.0, bucket.getTokens());
+
+		bucket.tryConsume(0, 60 * SECOND);
+		assertEquals(10.0, bucket.getTokens());
+	}
+
+	@Test
+	void chargesAWeightAboveTheCapacityAsAFullBucket() {
+
+		TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+		assertEquals(0, bucket.tryConsume(100, 0));
+		assertEquals(2 * SECOND, bucket.tryConsume(100, 0));
+	}
+
+}
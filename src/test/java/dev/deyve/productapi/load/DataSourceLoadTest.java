@@ -0,0 +1,90 @@
+package dev.deyve.productapi.load;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The prod profile under a mix that reaches the database on every request, the product and response
+ * caches off: point lookups, keyset pages, searches and 5% updates. Varies the pool size, then the
+ * driver's prepareThreshold, 0 never preparing statements on the server. A first run warms the JIT and
+ * PostgreSQL's buffers, which otherwise favour whichever setting runs last.
+ */
+@Tag("load")
+class DataSourceLoadTest {
+
+	private static final int CONCURRENCY = 100;
+
+	@BeforeAll
+	static void warmUp() throws Exception {
+		measure("datasource-warmup", Map.of());
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {5, 10, 20, 40})
+	void poolSize(int poolSize) throws Exception {
+		measure("datasource-pool-size", Map.of("poolSize", String.valueOf(poolSize)),
+				"--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+				"--spring.datasource.hikari.minimum-idle=" + poolSize);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {0, 1, 5})
+	void prepareThreshold(int prepareThreshold) throws Exception {
+		measure("datasource-prepare-threshold", Map.of("prepareThreshold", String.valueOf(prepareThreshold)),
+				"--spring.datasource.hikari.data-source-properties.prepareThreshold=" + prepareThreshold);
+	}
+
+	private static void measure(String scenario, Map<String, String> settings, String... args) throws Exception {
+
+		List<String> arguments = new ArrayList<>(List.of(
+				"--spring.profiles.active=prod",
+				"--spring.cache.type=none",
+				"--product.hibernate-cache.enabled=false",
+				// Hibernate still picks up the JCache provider on the classpath without these
+				"--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+				"--spring.jpa.properties.hibernate.cache.use_query_cache=false",
+				"--product.response-cache.enabled=false"));
+		arguments.addAll(List.of(args));
+
+		try (ConfigurableApplicationContext context = LoadTestHarness.start(arguments.toArray(String[]::new))) {
+
+			List<UUID> ids = LoadTestHarness.seed(context, 10_000);
+			String baseUrl = LoadTestHarness.baseUrl(context);
+			List<HttpRequest> requests = new ArrayList<>();
+
+			for (int i = 0; i < 1_000; i++) {
+				UUID id = ids.get(i * 7 % ids.size());
+				if (i % 20 == 0) {
+					requests.add(HttpRequest.newBuilder(URI.create(baseUrl + "/products/" + id))
+							.header("Content-Type", "application/json")
+							.PUT(HttpRequest.BodyPublishers.ofString("{\"name\":\"Load product\",\"description\":\"Load test phone model "
+									+ i + " with camera and charger\",\"price\":" + i % 1_000 + "}"))
+							.build());
+				} else if (i % 10 == 1) {
+					requests.add(HttpRequest.newBuilder(URI.create(baseUrl + "/products?limit=100&after=" + id)).build());
+				} else if (i % 10 == 2) {
+					requests.add(HttpRequest.newBuilder(URI.create(baseUrl + "/products/search?q=phone%20" + i + "&min_price=0&max_price=1000")).build());
+				} else {
+					requests.add(HttpRequest.newBuilder(URI.create(baseUrl + "/products/" + id)).build());
+				}
+			}
+
+			LoadTestResult result = LoadTestHarness.measureRequests(scenario, settings, requests, CONCURRENCY);
+
+			assertEquals(0, result.getErrors());
+		}
+	}
+
+}
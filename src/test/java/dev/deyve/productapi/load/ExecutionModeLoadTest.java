@@ -0,0 +1,57 @@
+package dev.deyve.productapi.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares product.execution.mode=blocking with async under the same read mix: point lookups,
+ * keyset pages and searches, with more concurrent users than Tomcat threads.
+ */
+@Tag("load")
+class ExecutionModeLoadTest {
+
+	private static final int CONCURRENCY = 400;
+
+	private static final String TOMCAT_THREADS = "50";
+
+	@ParameterizedTest
+	@ValueSource(strings = {"blocking", "async"})
+	void productReads(String mode) throws Exception {
+
+		try (ConfigurableApplicationContext context = LoadTestHarness.start(
+				"--product.execution.mode=" + mode,
+				"--server.tomcat.threads.max=" + TOMCAT_THREADS)) {
+
+			List<UUID> ids = LoadTestHarness.seed(context, 10_000);
+			String baseUrl = LoadTestHarness.baseUrl(context);
+			List<URI> uris = new ArrayList<>();
+
+			for (int i = 0; i < 1_000; i++) {
+				UUID id = ids.get(i * 7 % ids.size());
+				if (i % 10 == 0) {
+					uris.add(URI.create(baseUrl + "/products?limit=100&after=" + id));
+				} else if (i % 10 == 1) {
+					uris.add(URI.create(baseUrl + "/products/search?q=phone%20" + i + "&min_price=0&max_price=1000"));
+				} else {
+					uris.add(URI.create(baseUrl + "/products/" + id));
+				}
+			}
+
+			LoadTestResult result = LoadTestHarness.measure("execution-mode",
+					Map.of("mode", mode, "tomcatThreads", TOMCAT_THREADS), uris, CONCURRENCY);
+
+			assertEquals(0, result.getErrors());
+		}
+	}
+
+}
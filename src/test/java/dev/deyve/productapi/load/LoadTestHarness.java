@@ -0,0 +1,231 @@
+package dev.deyve.productapi.load;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.deyve.productapi.ProductApiApplication;
+import dev.deyve.productapi.dtos.ProductDTO;
+import dev.deyve.productapi.models.Product;
+import dev.deyve.productapi.repositories.ProductRepository;
+import dev.deyve.productapi.services.ProductBatchService;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Load Test Harness
+ * <p>
+ * Starts the application on a random port against PostgreSQL and drives it with a closed-loop HTTP
+ * client: every virtual user sends its next request as soon as the previous one answered. The
+ * database is a Testcontainers PostgreSQL unless -Dload.datasource.url points to an existing one.
+ * Durations are set with -Dload.warmup and -Dload.duration, in seconds.
+ */
+public class LoadTestHarness {
+
+	private static final File RESULTS = new File("target/load-test-results.json");
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+	private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+			.connectTimeout(Duration.ofSeconds(10))
+			.build();
+
+	private static PostgreSQLContainer<?> container;
+
+	public static Duration warmup() {
+		return Duration.ofSeconds(Long.getLong("load.warmup", 10));
+	}
+
+	public static Duration duration() {
+		return Duration.ofSeconds(Long.getLong("load.duration", 30));
+	}
+
+	public static ConfigurableApplicationContext start(String... args) {
+
+		List<String> arguments = new ArrayList<>(datasourceArguments());
+		arguments.add("--server.port=0");
+		arguments.add("--spring.jpa.show-sql=false");
+		arguments.add("--logging.level.root=WARN");
+		arguments.add("--product.rate-limit.enabled=false");
+		arguments.addAll(List.of(args));
+
+		return new SpringApplicationBuilder(ProductApiApplication.class).run(arguments.toArray(String[]::new));
+	}
+
+	public static String baseUrl(ConfigurableApplicationContext context) {
+		return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+	}
+
+	/**
+	 * Makes sure the catalog has at least size products and returns the ids of size of them.
+	 */
+	public static List<UUID> seed(ConfigurableApplicationContext context, int size) {
+
+		ProductRepository productRepository = context.getBean(ProductRepository.class);
+		long missing = size - productRepository.count();
+
+		if (missing > 0) {
+			List<ProductDTO> productDTOs = IntStream.range(0, (int) missing)
+					.mapToObj(i -> ProductDTO.builder()
+							.name("Load product " + i)
+							.description("Load test phone model " + i + " with camera and charger")
+							.price(BigDecimal.valueOf(i % 100_000, 2))
+							.build())
+					.collect(Collectors.toList());
+			context.getBean(ProductBatchService.class).saveProducts(productDTOs);
+		}
+
+		return productRepository.findAllByOrderByExternalIdAsc(PageRequest.of(0, size)).stream()
+				.map(Product::getExternalId)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Runs a warmup, then measures for the configured duration and appends the result to
+	 * target/load-test-results.json.
+	 */
+	public static LoadTestResult measure(String scenario, Map<String, String> settings, List<URI> uris, int concurrency)
+			throws InterruptedException, IOException {
+
+		List<HttpRequest> requests = uris.stream()
+				.map(uri -> HttpRequest.newBuilder(uri).build())
+				.collect(Collectors.toList());
+
+		return measureRequests(scenario, settings, requests, concurrency);
+	}
+
+	/**
+	 * Same as {@link #measure} with any method, e.g. to mix writes in.
+	 */
+	public static LoadTestResult measureRequests(String scenario, Map<String, String> settings, List<HttpRequest> requests, int concurrency)
+			throws InterruptedException, IOException {
+
+		run(requests, concurrency, warmup(), new ConcurrentHistogram(3), new AtomicLong());
+
+		Histogram histogram = new ConcurrentHistogram(3);
+		AtomicLong errors = new AtomicLong();
+		long started = System.nanoTime();
+
+		run(requests, concurrency, duration(), histogram, errors);
+
+		double seconds = (System.nanoTime() - started) / 1e9;
+
+		LoadTestResult result = LoadTestResult.builder()
+				.scenario(scenario)
+				.settings(new LinkedHashMap<>(settings))
+				.concurrency(concurrency)
+				.requests(histogram.getTotalCount())
+				.errors(errors.get())
+				.throughput(histogram.getTotalCount() / seconds)
+				.p50Millis(histogram.getValueAtPercentile(50) / 1e6)
+				.p99Millis(histogram.getValueAtPercentile(99) / 1e6)
+				.maxMillis(histogram.getMaxValue() / 1e6)
+				.build();
+
+		System.out.printf("%-40s %s: %,.0f req/s, p50 %.2f ms, p99 %.2f ms, %d errors%n", scenario, settings,
+				result.getThroughput(), result.getP50Millis(), result.getP99Millis(), result.getErrors());
+
+		append(result);
+
+		return result;
+	}
+
+	private static void run(List<HttpRequest> requests, int concurrency, Duration duration, Histogram histogram, AtomicLong errors)
+			throws InterruptedException {
+
+		ExecutorService users = Executors.newFixedThreadPool(concurrency);
+		long deadline = System.nanoTime() + duration.toNanos();
+
+		for (int user = 0; user < concurrency; user++) {
+			int offset = user;
+			users.execute(() -> {
+				for (int i = offset; System.nanoTime() < deadline; i++) {
+					HttpRequest request = requests.get(i % requests.size());
+					long start = System.nanoTime();
+					try {
+						HttpResponse<Void> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.discarding());
+						if (response.statusCode() >= 400) {
+							errors.incrementAndGet();
+						}
+					} catch (IOException e) {
+						errors.incrementAndGet();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+					histogram.recordValue(System.nanoTime() - start);
+				}
+			});
+		}
+
+		users.shutdown();
+		users.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+	}
+
+	private static synchronized void append(LoadTestResult result) throws IOException {
+
+		List<LoadTestResult> results = RESULTS.exists()
+				? OBJECT_MAPPER.readValue(RESULTS, new TypeReference<>() {
+		})
+				: new ArrayList<>();
+
+		results.add(result);
+
+		OBJECT_MAPPER.writeValue(RESULTS, results);
+	}
+
+	private static synchronized List<String> datasourceArguments() {
+
+		String url = System.getProperty("load.datasource.url");
+
+		if (url != null) {
+			return List.of("--spring.datasource.url=" + url,
+					"--spring.r2dbc.url=" + r2dbcUrl(url),
+					"--spring.datasource.username=" + System.getProperty("load.datasource.username", "product-user"),
+					"--spring.datasource.password=" + System.getProperty("load.datasource.password", "product-password"));
+		}
+
+		if (container == null) {
+			container = new PostgreSQLContainer<>("postgres:13");
+			container.start();
+		}
+
+		return List.of("--spring.datasource.url=" + container.getJdbcUrl(),
+				"--spring.r2dbc.url=" + r2dbcUrl(container.getJdbcUrl()),
+				"--spring.datasource.username=" + container.getUsername(),
+				"--spring.datasource.password=" + container.getPassword());
+	}
+
+	/**
+	 * Same database for the reactive profile: jdbc:postgresql://host/db?options to r2dbc:postgresql://host/db.
+	 */
+	private static String r2dbcUrl(String jdbcUrl) {
+
+		int options = jdbcUrl.indexOf('?');
+
+		return "r2dbc:" + (options < 0 ? jdbcUrl : jdbcUrl.substring(0, options)).substring("jdbc:".length());
+	}
+}
@@ -0,0 +1,34 @@
+package dev.deyve.productapi.load;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadTestResult {
+
+	private String scenario;
+
+	private Map<String, String> settings;
+
+	private int concurrency;
+
+	private long requests;
+
+	private long errors;
+
+	private double throughput;
+
+	private double p50Millis;
+
+	private double p99Millis;
+
+	private double maxMillis;
+
+}
@@ -0,0 +1,53 @@
+package dev.deyve.productapi.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Hot reads with and without the response cache: a hundred popular products, and the pages and searches
+ * most clients ask for, so after the warmup every cached request is a hit.
+ */
+@Tag("load")
+class ResponseCacheLoadTest {
+
+	private static final int CONCURRENCY = 200;
+
+	@ParameterizedTest
+	@ValueSource(booleans = {false, true})
+	void hotReads(boolean responseCache) throws Exception {
+
+		try (ConfigurableApplicationContext context = LoadTestHarness.start("--product.response-cache.enabled=" + responseCache)) {
+
+			List<UUID> ids = LoadTestHarness.seed(context, 10_000);
+			String baseUrl = LoadTestHarness.baseUrl(context);
+			List<URI> uris = new ArrayList<>();
+
+			for (int i = 0; i < 1_000; i++) {
+				UUID id = ids.get(i % 100);
+				if (i % 10 == 0) {
+					uris.add(URI.create(baseUrl + "/products?limit=100"));
+				} else if (i % 10 == 1) {
+					uris.add(URI.create(baseUrl + "/products/search?q=phone%20" + i % 5 + "&min_price=0&max_price=1000"));
+				} else {
+					uris.add(URI.create(baseUrl + "/products/" + id));
+				}
+			}
+
+			LoadTestResult result = LoadTestHarness.measure("response-cache", Map.of("responseCache", String.valueOf(responseCache)), uris,
+					CONCURRENCY);
+
+			assertEquals(0, result.getErrors());
+		}
+	}
+
+}
@@ -0,0 +1,53 @@
+package dev.deyve.productapi.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the servlet stack (Tomcat, JPA) with the reactive profile (Netty, WebFlux, R2DBC) under the
+ * same read mix and the same PostgreSQL: point lookups, keyset pages and searches.
+ */
+@Tag("load")
+class StackLoadTest {
+
+	private static final int CONCURRENCY = 400;
+
+	@ParameterizedTest
+	@ValueSource(strings = {"servlet", "reactive"})
+	void productReads(String stack) throws Exception {
+
+		try (ConfigurableApplicationContext context = LoadTestHarness.start(
+				"--spring.profiles.active=" + ("reactive".equals(stack) ? "reactive" : "default"))) {
+
+			List<UUID> ids = LoadTestHarness.seed(context, 10_000);
+			String baseUrl = LoadTestHarness.baseUrl(context);
+			List<URI> uris = new ArrayList<>();
+
+			for (int i = 0; i < 1_000; i++) {
+				UUID id = ids.get(i * 7 % ids.size());
+				if (i % 10 == 0) {
+					uris.add(URI.create(baseUrl + "/products?limit=100&after=" + id));
+				} else if (i % 10 == 1) {
+					uris.add(URI.create(baseUrl + "/products/search?q=phone%20" + i + "&min_price=0&max_price=1000"));
+				} else {
+					uris.add(URI.create(baseUrl + "/products/" + id));
+				}
+			}
+
+			LoadTestResult result = LoadTestHarness.measure("stack", Map.of("stack", stack), uris, CONCURRENCY);
+
+			assertEquals(0, result.getErrors());
+		}
+	}
+
+}
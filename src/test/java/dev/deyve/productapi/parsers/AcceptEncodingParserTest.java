@@ -0,0 +1,35 @@
+package dev.deyve.productapi.parsers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AcceptEncodingParserTest {
+
+	@Test
+	void acceptsGzipWithAPositiveQuality() {
+		assertTrue(AcceptEncodingParser.acceptsGzip("gzip"));
+		assertTrue(AcceptEncodingParser.acceptsGzip("deflate, GZIP;q=0.8"));
+		assertTrue(AcceptEncodingParser.acceptsGzip("br;q=1.0, x-gzip ; level=1; q=0.5"));
+		assertTrue(AcceptEncodingParser.acceptsGzip("identity, *;q=0.1"));
+	}
+
+	@Test
+	void refusesGzipWithQualityZero() {
+		assertFalse(AcceptEncodingParser.acceptsGzip("gzip;q=0"));
+		assertFalse(AcceptEncodingParser.acceptsGzip("gzip; q=0.000, identity"));
+		assertFalse(AcceptEncodingParser.acceptsGzip("*;q=1, gzip;q=0"));
+		assertFalse(AcceptEncodingParser.acceptsGzip("*;q=0"));
+		assertFalse(AcceptEncodingParser.acceptsGzip("gzip;q=abc"));
+	}
+
+	@Test
+	void refusesGzipNotListed() {
+		assertFalse(AcceptEncodingParser.acceptsGzip(null));
+		assertFalse(AcceptEncodingParser.acceptsGzip(""));
+		assertFalse(AcceptEncodingParser.acceptsGzip("deflate, br"));
+		assertFalse(AcceptEncodingParser.acceptsGzip("gzipper"));
+	}
+
+}
@@ -0,0 +1,94 @@
+package dev.deyve.productapi.parsers;
+
+import dev.deyve.productapi.dtos.ProductDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductCsvParserTest {
+
+	@Test
+	void splitsQuotedFields() {
+		assertEquals(List.of("a,b", "say \"hi\"", ""), ProductCsvParser.split("\"a,b\",\"say \"\"hi\"\"\","));
+	}
+
+	@Test
+	void mapsColumnsByHeader() {
+		Map<String, Integer> header = ProductCsvParser.toHeader("Price, Name ,description");
+
+		ProductDTO productDTO = ProductCsvParser.toProductDTO(header, "10.50,Phone,");
+
+		assertEquals("Phone", productDTO.getName());
+		assertNull(productDTO.getDescription());
+		assertEquals(new BigDecimal("10.50"), productDTO.getPrice());
+	}
+
+	@Test
+	void rejectsInvalidRows() {
+		Map<String, Integer> header = ProductCsvParser.toHeader("name,price");
+
+		assertThrows(IllegalArgumentException.class, () -> ProductCsvParser.toProductDTO(header, "Phone,ten"));
+		assertThrows(IllegalArgumentException.class, () -> ProductCsvParser.toProductDTO(header, "\"Phone,10"));
+		assertThrows(IllegalArgumentException.class, () -> ProductCsvParser.toHeader("price,description"));
+	}
+
+	@Test
+	void writesLinesItCanReadBack() {
+		ProductDTO productDTO = ProductDTO.builder()
+				.id(UUID.randomUUID())
+				.name("Cable, \"USB-C\"")
+				.price(new BigDecimal("9.90"))
+				.build();
+
+		String line = ProductCsvParser.toCsvLine(productDTO);
+		ProductDTO parsed = ProductCsvParser.toProductDTO(ProductCsvParser.toHeader(ProductCsvParser.HEADER), line);
+
+		assertEquals(productDTO.getName(), parsed.getName());
+		assertNull(parsed.getDescription());
+		assertEquals(productDTO.getPrice(), parsed.getPrice());
+	}
+
+	@Test
+	void readsBackExportedMultiLineFields() throws IOException {
+		List<ProductDTO> exported = List.of(
+				ProductDTO.builder().id(UUID.randomUUID()).name("Lamp").description("Warm light\nDimmable, \"smart\"\n").price(new BigDecimal("25.00")).build(),
+				ProductDTO.builder().id(UUID.randomUUID()).name("Desk\r\nOak").price(new BigDecimal("120")).build());
+
+		StringBuilder csv = new StringBuilder(ProductCsvParser.HEADER).append('\n');
+		exported.forEach(productDTO -> csv.append(ProductCsvParser.toCsvLine(productDTO)).append('\n'));
+
+		BufferedReader reader = new BufferedReader(new StringReader(csv.toString()));
+		Map<String, Integer> header = ProductCsvParser.toHeader(ProductCsvParser.readRecord(reader));
+
+		ProductDTO lamp = ProductCsvParser.toProductDTO(header, ProductCsvParser.readRecord(reader));
+		ProductDTO desk = ProductCsvParser.toProductDTO(header, ProductCsvParser.readRecord(reader));
+
+		assertEquals("Lamp", lamp.getName());
+		assertEquals("Warm light\nDimmable, \"smart\"\n", lamp.getDescription());
+		assertEquals(new BigDecimal("25.00"), lamp.getPrice());
+		assertEquals("Desk\nOak", desk.getName());
+		assertNull(ProductCsvParser.readRecord(reader));
+	}
+
+	@Test
+	void leavesQuotesOpenAtTheEndToBeRejected() throws IOException {
+		BufferedReader reader = new BufferedReader(new StringReader("\"Phone,10\nnext line"));
+
+		String record = ProductCsvParser.readRecord(reader);
+
+		assertNotNull(record);
+		assertThrows(IllegalArgumentException.class, () -> ProductCsvParser.toProductDTO(ProductCsvParser.toHeader("name,price"), record));
+	}
+
+}
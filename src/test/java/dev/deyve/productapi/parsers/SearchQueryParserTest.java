@@ -0,0 +1,34 @@
+package dev.deyve.productapi.parsers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SearchQueryParserTest {
+
+	@Test
+	void prefixesEveryTerm() {
+		assertEquals("smart:* & pho:*", SearchQueryParser.toPrefixQuery("Smart PHO"));
+	}
+
+	@Test
+	void dropsTsQueryOperators() {
+		assertEquals("usb:* & c:* & cable:*", SearchQueryParser.toPrefixQuery("usb-c & (cable)!:*"));
+	}
+
+	@Test
+	void returnsNullWithoutSearchableTerms() {
+		assertNull(SearchQueryParser.toPrefixQuery(" &|! "));
+		assertNull(SearchQueryParser.toPrefixQuery(null));
+	}
+
+	@Test
+	void splitsTextIntoTerms() {
+		assertEquals(List.of("csv", "item", "1563", "has", "quotes"), SearchQueryParser.toTerms("Csv, item 1563 has \"quotes\""));
+		assertEquals(List.of(), SearchQueryParser.toTerms(null));
+	}
+
+}
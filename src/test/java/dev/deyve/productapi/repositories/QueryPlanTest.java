@@ -0,0 +1,250 @@
+package dev.deyve.productapi.repositories;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.deyve.productapi.TestApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Calls the repositories the way the services do, records the statements they send with their bound values,
+ * and runs EXPLAIN for each of them, failing when one reads a whole table. So the plans checked are those
+ * of the SQL Hibernate and JDBC actually generate. The application is started by {@link TestApplication}
+ * and its schema seeded with enough rows for the planner to prefer the indexes.
+ */
+class QueryPlanTest {
+
+	private static final String SCHEMA = "query_plan_test";
+
+	private static final int ROWS = 50_000;
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private static ConfigurableApplicationContext context;
+
+	private static ProductRepository productRepository;
+
+	private static ProductChangeRepository productChangeRepository;
+
+	private static JdbcTemplate jdbcTemplate;
+
+	private static UUID id;
+
+	@BeforeAll
+	static void setUp() {
+
+		context = TestApplication.start(SCHEMA, "--spring.main.sources=" + StatementRecorder.class.getName());
+		productRepository = context.getBean(ProductRepository.class);
+		productChangeRepository = context.getBean(ProductChangeRepository.class);
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+		jdbcTemplate.update("insert into product (id, created_at, updated_at, external_id, name, description, price, version)"
+				+ " select nextval('hibernate_sequence'), now(), now() - g * interval '1 second', gen_random_uuid(),"
+				+ " 'Product ' || g, 'Description ' || g, g % 1000, 0 from generate_series(1, ?) g", ROWS);
+		jdbcTemplate.update("insert into product_change (external_id, operation, version, changed_at)"
+				+ " select external_id, 'CREATED', 0, created_at from product");
+		jdbcTemplate.execute("analyze product");
+		jdbcTemplate.execute("analyze product_change");
+
+		id = jdbcTemplate.queryForObject("select external_id from product order by external_id offset"
+				+ " (select count(*) / 2 from product) limit 1", UUID.class);
+	}
+
+	@AfterAll
+	static void tearDown() {
+		TestApplication.stop(context, SCHEMA);
+	}
+
+	@Test
+	void findByExternalId() {
+		assertNoSeqScan(() -> productRepository.findByExternalId(id));
+	}
+
+	@Test
+	void findByExternalIdIn() {
+		assertNoSeqScan(() -> productRepository.findByExternalIdIn(List.of(id, UUID.randomUUID(), UUID.randomUUID())));
+	}
+
+	@Test
+	void keysetFirstPage() {
+		assertNoSeqScan(() -> productRepository.findAllByOrderByExternalIdAsc(PageRequest.of(0, 100)));
+	}
+
+	@Test
+	void keysetPageAfter() {
+		assertNoSeqScan(() -> productRepository.findByExternalIdGreaterThanOrderByExternalIdAsc(id, PageRequest.of(0, 100)));
+	}
+
+	@Test
+	void summarizePages() {
+		assertNoSeqScan(() -> {
+			productRepository.summarizeFirstPage(100);
+			productRepository.summarizePageAfter(id, 100);
+		});
+	}
+
+	@Test
+	void search() {
+		assertNoSeqScan(() -> {
+			productRepository.search("12345:*", BigDecimal.ZERO, new BigDecimal("100000"));
+			productRepository.summarizeSearch("12345:*", BigDecimal.ZERO, new BigDecimal("100000"));
+		});
+	}
+
+	@Test
+	void facetSearch() {
+		assertNoSeqScan(() -> productRepository.facetSearch("12345:*", BigDecimal.ZERO, new BigDecimal("100000"), 10));
+	}
+
+	@Test
+	void updatedSince() {
+		assertNoSeqScan(() -> productRepository.findUpdatedSince(LocalDateTime.now().minusMinutes(5)));
+	}
+
+	@Test
+	void changesAfter() {
+		assertNoSeqScan(() -> productChangeRepository.findAfter(1L, 100));
+	}
+
+	private static void assertNoSeqScan(Runnable queries) {
+
+		StatementRecorder.STATEMENTS.clear();
+
+		queries.run();
+
+		List<RecordedStatement> statements = new ArrayList<>(StatementRecorder.STATEMENTS);
+
+		assertFalse(statements.isEmpty(), "No statement reached the database");
+
+		for (RecordedStatement statement : statements) {
+
+			String plan = jdbcTemplate.queryForObject("explain (format json) " + statement.sql, String.class, statement.parameters());
+
+			List<String> seqScans = new ArrayList<>();
+
+			try {
+				collectSeqScans(OBJECT_MAPPER.readTree(plan).get(0).get("Plan"), seqScans);
+			} catch (Exception e) {
+				throw new IllegalStateException(plan, e);
+			}
+
+			assertTrue(seqScans.isEmpty(), () -> "Sequential scan on " + seqScans + " for " + statement.sql + "\n" + plan);
+		}
+	}
+
+	private static void collectSeqScans(JsonNode node, List<String> seqScans) {
+
+		if ("Seq Scan".equals(node.path("Node Type").asText())) {
+			seqScans.add(node.path("Relation Name").asText());
+		}
+
+		for (JsonNode child : node.path("Plans")) {
+			collectSeqScans(child, seqScans);
+		}
+	}
+
+	private static class RecordedStatement {
+
+		private final String sql;
+
+		private final Map<Integer, Object> parameters = new TreeMap<>();
+
+		private RecordedStatement(String sql) {
+			this.sql = sql;
+		}
+
+		private Object[] parameters() {
+			return parameters.values().toArray();
+		}
+	}
+
+	/**
+	 * Wraps the application data source and records every prepared query it executes.
+	 */
+	static class StatementRecorder implements BeanPostProcessor {
+
+		private static final ConcurrentLinkedQueue<RecordedStatement> STATEMENTS = new ConcurrentLinkedQueue<>();
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+
+			if (!(bean instanceof DataSource)) {
+				return bean;
+			}
+
+			return new DelegatingDataSource((DataSource) bean) {
+
+				@Override
+				public Connection getConnection() throws SQLException {
+					return recording(super.getConnection());
+				}
+
+				@Override
+				public Connection getConnection(String username, String password) throws SQLException {
+					return recording(super.getConnection(username, password));
+				}
+			};
+		}
+
+		private static Connection recording(Connection connection) {
+
+			return (Connection) Proxy.newProxyInstance(QueryPlanTest.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+
+				Object result = invoke(connection, method, args);
+
+				if (method.getName().equals("prepareStatement") && args[0] instanceof String) {
+					return recording((PreparedStatement) result, new RecordedStatement((String) args[0]));
+				}
+
+				return result;
+			});
+		}
+
+		private static PreparedStatement recording(PreparedStatement statement, RecordedStatement recorded) {
+
+			return (PreparedStatement) Proxy.newProxyInstance(QueryPlanTest.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+
+				if (method.getName().startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+					recorded.parameters.put((Integer) args[0], method.getName().equals("setNull") ? null : args[1]);
+				} else if (method.getName().equals("executeQuery") && (args == null || args.length == 0)) {
+					STATEMENTS.add(recorded);
+				}
+
+				return invoke(statement, method, args);
+			});
+		}
+
+		private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getTargetException();
+			}
+		}
+	}
+}
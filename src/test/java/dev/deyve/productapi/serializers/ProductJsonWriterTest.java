@@ -0,0 +1,64 @@
+package dev.deyve.productapi.serializers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.deyve.productapi.dtos.ProductDTO;
+import dev.deyve.productapi.models.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductJsonWriterTest {
+
+	private final ObjectMapper reflectionMapper = Jackson2ObjectMapperBuilder.json().build();
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+			.serializers(new ProductDTOSerializer(), new ProductSerializer())
+			.build();
+
+	@Test
+	void formatsIdsLikeUuidToString() {
+		char[] buffer = new char[36];
+
+		for (UUID id : new UUID[]{UUID.randomUUID(), new UUID(0, 0), new UUID(-1, -1), new UUID(0x0123456789abcdefL, 0xfedcba9876543210L)}) {
+			ProductJsonWriter.format(id, buffer);
+			assertEquals(id.toString(), new String(buffer));
+		}
+	}
+
+	@Test
+	void writesTheSameJsonAsReflection() throws Exception {
+		ProductDTO productDTO = ProductDTO.builder()
+				.id(UUID.randomUUID())
+				.name("Phone \"X\"")
+				.price(new BigDecimal("10.50"))
+				.build();
+
+		assertEquals(reflectionMapper.writeValueAsString(productDTO), objectMapper.writeValueAsString(productDTO));
+	}
+
+	@Test
+	void writesEntitiesInTheDtoShape() throws Exception {
+		Product product = Product.builder()
+				.id(7L)
+				.externalId(UUID.randomUUID())
+				.name("Phone")
+				.description("Smart phone")
+				.price(new BigDecimal("1E+3"))
+				.version(3L)
+				.build();
+
+		ProductDTO productDTO = ProductDTO.builder()
+				.id(product.getExternalId())
+				.name(product.getName())
+				.description(product.getDescription())
+				.price(product.getPrice())
+				.build();
+
+		assertEquals(reflectionMapper.writeValueAsString(productDTO), objectMapper.writeValueAsString(product));
+	}
+
+}
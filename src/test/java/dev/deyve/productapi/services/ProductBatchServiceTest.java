@@ -0,0 +1,107 @@
+package dev.deyve.productapi.services;
+
+import dev.deyve.productapi.TestApplication;
+import dev.deyve.productapi.dtos.BatchItemResultDTO;
+import dev.deyve.productapi.dtos.BatchResultDTO;
+import dev.deyve.productapi.dtos.ProductDTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Calls the {@link ProductBatchService} of an application started by {@link TestApplication}, with chunks
+ * holding a row the database rejects.
+ */
+class ProductBatchServiceTest {
+
+	private static final String SCHEMA = "product_batch_service_test";
+
+	private static final String TOO_LONG = "x".repeat(256);
+
+	private static ConfigurableApplicationContext context;
+
+	private static ProductBatchService productBatchService;
+
+	private static ProductService productService;
+
+	@BeforeAll
+	static void setUp() {
+
+		context = TestApplication.start(SCHEMA, "--product.batch.chunk-size=8");
+		productBatchService = context.getBean(ProductBatchService.class);
+		productService = context.getBean(ProductService.class);
+	}
+
+	@AfterAll
+	static void tearDown() {
+		TestApplication.stop(context, SCHEMA);
+	}
+
+	@Test
+	void savesTheRestOfAChunkWithARejectedRow() {
+
+		List<ProductDTO> productDTOs = new ArrayList<>();
+
+		for (int i = 0; i < 8; i++) {
+			productDTOs.add(product(i == 5 ? TOO_LONG : "Saved " + i));
+		}
+
+		BatchResultDTO result = productBatchService.saveProducts(productDTOs);
+
+		assertEquals(7, result.getSucceeded());
+		assertEquals(1, result.getFailed());
+		assertEquals(List.of(201, 201, 201, 201, 201, 400, 201, 201), statuses(result));
+
+		for (BatchItemResultDTO item : result.getItems()) {
+			if (item.getStatus() == 201) {
+				assertNotNull(productService.findByExternalId(item.getId()));
+			}
+		}
+	}
+
+	@Test
+	void updatesTheRestOfAChunkWithARejectedRow() {
+
+		List<UUID> ids = productBatchService.saveProducts(List.of(product("A"), product("B"), product("C"))).getItems().stream()
+				.map(BatchItemResultDTO::getId)
+				.collect(Collectors.toList());
+
+		List<ProductDTO> updates = List.of(
+				update(ids.get(0), "A updated"),
+				update(ids.get(1), TOO_LONG),
+				update(ids.get(2), "C updated"),
+				update(UUID.randomUUID(), "Missing"));
+
+		BatchResultDTO result = productBatchService.updateProducts(updates);
+
+		assertEquals(List.of(200, 400, 200, 404), statuses(result));
+		assertEquals("A updated", productService.findByExternalId(ids.get(0)).getName());
+		assertEquals("B", productService.findByExternalId(ids.get(1)).getName());
+		assertEquals("C updated", productService.findByExternalId(ids.get(2)).getName());
+	}
+
+	private static List<Integer> statuses(BatchResultDTO result) {
+
+		return result.getItems().stream()
+				.map(BatchItemResultDTO::getStatus)
+				.collect(Collectors.toList());
+	}
+
+	private static ProductDTO product(String name) {
+		return ProductDTO.builder().name(name).description("Description").price(BigDecimal.ONE).build();
+	}
+
+	private static ProductDTO update(UUID id, String name) {
+		return ProductDTO.builder().id(id).name(name).description("Description").price(BigDecimal.TEN).build();
+	}
+}
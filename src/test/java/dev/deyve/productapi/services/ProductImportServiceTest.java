@@ -0,0 +1,115 @@
+package dev.deyve.productapi.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.deyve.productapi.configurations.BatchProperties;
+import dev.deyve.productapi.configurations.ImportProperties;
+import dev.deyve.productapi.dtos.BatchItemResultDTO;
+import dev.deyve.productapi.dtos.BatchResultDTO;
+import dev.deyve.productapi.dtos.ImportStatusDTO;
+import dev.deyve.productapi.dtos.ProductDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Imports through a {@link ProductBatchService} that writes nothing, holding its first chunk until interrupted.
+ */
+class ProductImportServiceTest {
+
+	private final AtomicInteger chunksWritten = new AtomicInteger();
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private ThreadPoolTaskExecutor importExecutor;
+
+	private ProductImportService productImportService;
+
+	@BeforeEach
+	void setUp() {
+
+		importExecutor = new ThreadPoolTaskExecutor();
+		importExecutor.initialize();
+
+		BatchProperties batchProperties = new BatchProperties();
+		batchProperties.setChunkSize(1);
+
+		ImportProperties importProperties = new ImportProperties();
+		importProperties.setQueueCapacity(2);
+
+		ProductBatchService productBatchService = new ProductBatchService(null, null, null, batchProperties, null, null) {
+			@Override
+			public BatchResultDTO saveProducts(List<ProductDTO> productDTOs) {
+
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+
+				chunksWritten.incrementAndGet();
+
+				List<BatchItemResultDTO> items = IntStream.range(0, productDTOs.size())
+						.mapToObj(index -> BatchItemResultDTO.builder().index(index).status(201).build())
+						.collect(Collectors.toList());
+
+				return BatchResultDTO.builder().succeeded(items.size()).items(items).build();
+			}
+		};
+
+		productImportService = new ProductImportService(productBatchService, importExecutor, new ObjectMapper(),
+				batchProperties, importProperties);
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		importExecutor.shutdown();
+	}
+
+	@Test
+	void dropsQueuedChunksWhenAnOversizedRecordFailsTheRead() throws InterruptedException {
+
+		StringBuilder csv = new StringBuilder("name,description,price\n");
+
+		for (int i = 0; i < 3; i++) {
+			csv.append("Product ").append(i).append(",Description,1.00\n");
+		}
+
+		csv.append("\"Unterminated\n").append("x".repeat(2 * 1024 * 1024)).append('\n');
+
+		AtomicBoolean returned = new AtomicBoolean();
+		List<ImportStatusDTO> lateStatuses = new CopyOnWriteArrayList<>();
+
+		assertThrows(IllegalArgumentException.class, () -> productImportService.importProducts(
+				new ByteArrayInputStream(csv.toString().getBytes(UTF_8)), MediaType.parseMediaType("text/csv"), status -> {
+					if (returned.get()) {
+						lateStatuses.add(status);
+					}
+				}));
+
+		returned.set(true);
+		release.countDown();
+
+		// a writer left running would take the queued chunks now
+		Thread.sleep(300);
+
+		assertEquals(1, chunksWritten.get(), "Only the chunk being written when the read failed");
+		assertTrue(lateStatuses.isEmpty(), () -> "Listener called after the import returned: " + lateStatuses);
+	}
+}
@@ -0,0 +1,160 @@
+package dev.deyve.productapi.services;
+
+import dev.deyve.productapi.TestApplication;
+import dev.deyve.productapi.dtos.PriceFacetsDTO;
+import dev.deyve.productapi.dtos.ProductDTO;
+import dev.deyve.productapi.models.Product;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static dev.deyve.productapi.configurations.CacheConfiguration.PRODUCTS_CACHE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Calls the {@link ProductService} of an application started by {@link TestApplication}.
+ */
+class ProductServiceTest {
+
+	private static final String SCHEMA = "product_service_test";
+
+	private static ConfigurableApplicationContext context;
+
+	private static ProductService productService;
+
+	private static Cache cache;
+
+	@BeforeAll
+	static void setUp() {
+
+		context = TestApplication.start(SCHEMA);
+		productService = context.getBean(ProductService.class);
+		cache = context.getBean(CacheManager.class).getCache(PRODUCTS_CACHE);
+	}
+
+	@AfterAll
+	static void tearDown() {
+		TestApplication.stop(context, SCHEMA);
+	}
+
+	@Test
+	void cachesWhatItFinds() {
+
+		UUID id = save("Cached").getId();
+
+		assertNull(cache.get(id));
+
+		Product product = productService.findByExternalId(id);
+
+		assertEquals(product, cache.get(id, Product.class));
+	}
+
+	@Test
+	void doesNotCacheMisses() {
+
+		UUID id = UUID.randomUUID();
+
+		assertNull(productService.findByExternalId(id));
+		assertNull(cache.get(id));
+	}
+
+	@Test
+	void updateAndDeleteEvictTheirProduct() {
+
+		UUID id = save("Evicted").getId();
+
+		productService.findByExternalId(id);
+		productService.updateProduct(id, ProductDTO.builder().name("Updated").description("Updated").price(BigDecimal.TEN).build(), null);
+
+		assertNull(cache.get(id));
+		assertEquals("Updated", productService.findByExternalId(id).getName());
+		assertNotNull(cache.get(id));
+
+		productService.deleteProduct(id, null);
+
+		assertNull(cache.get(id));
+		assertNull(productService.findByExternalId(id));
+	}
+
+	@Test
+	void facetsFillEmptyBucketsAndPutTheHighestPriceInTheLast() {
+
+		for (String price : List.of("10.00", "12.00", "20.00", "20.00", "50.00")) {
+			save("Histogram", price);
+		}
+
+		PriceFacetsDTO facets = facetSearch("histogram", 4);
+
+		assertEquals(5, facets.getCount());
+		assertEquals(new BigDecimal("10.00"), facets.getMinPrice());
+		assertEquals(new BigDecimal("50.00"), facets.getMaxPrice());
+		assertEquals(new BigDecimal("22.40"), facets.getAvgPrice());
+		assertEquals(List.of("10.00-20.00:2", "20.00-30.00:2", "30.00-40.00:0", "40.00-50.00:1"), buckets(facets));
+	}
+
+	@Test
+	void facetsRoundBucketBoundsToThePriceScale() {
+
+		save("Rounding", "10.00");
+		save("Rounding", "20.00");
+
+		PriceFacetsDTO facets = facetSearch("rounding", 3);
+
+		assertEquals(new BigDecimal("15.00"), facets.getAvgPrice());
+		assertEquals(List.of("10.00-13.33:1", "13.33-16.67:0", "16.67-20.00:1"), buckets(facets));
+	}
+
+	@Test
+	void facetsOfEqualPricesHaveASingleBucket() {
+
+		save("Uniform", "7.50");
+		save("Uniform", "7.50");
+
+		PriceFacetsDTO facets = facetSearch("uniform", 10);
+
+		assertEquals(2, facets.getCount());
+		assertEquals(new BigDecimal("7.50"), facets.getMinPrice());
+		assertEquals(new BigDecimal("7.50"), facets.getMaxPrice());
+		assertEquals(new BigDecimal("7.50"), facets.getAvgPrice());
+		assertEquals(List.of("7.50-7.50:2"), buckets(facets));
+	}
+
+	@Test
+	void facetsWithoutHitsAreEmpty() {
+
+		PriceFacetsDTO facets = facetSearch("nowhere", 10);
+
+		assertEquals(0, facets.getCount());
+		assertTrue(facets.getBuckets().isEmpty());
+	}
+
+	private static PriceFacetsDTO facetSearch(String q, int buckets) {
+		return productService.facetSearch(q, BigDecimal.ZERO, new BigDecimal("1000000"), buckets);
+	}
+
+	private static List<String> buckets(PriceFacetsDTO facets) {
+
+		return facets.getBuckets().stream()
+				.map(bucket -> bucket.getFrom() + "-" + bucket.getTo() + ":" + bucket.getCount())
+				.collect(Collectors.toList());
+	}
+
+	private static ProductDTO save(String name, String price) {
+		return productService.saveProduct(ProductDTO.builder().name(name).description(name + " description").price(new BigDecimal(price)).build());
+	}
+
+	private static ProductDTO save(String name) {
+		return productService.saveProduct(ProductDTO.builder().name(name).description(name + " description").price(BigDecimal.ONE).build());
+	}
+}